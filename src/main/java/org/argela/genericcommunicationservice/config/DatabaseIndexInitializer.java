@@ -0,0 +1,39 @@
+package org.argela.genericcommunicationservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate ddl-auto'nun oluşturamadığı index'leri açılışta oluşturur.
+ * headers kolonu için GIN (jsonb_path_ops) index'i - header araması (@>) bunu kullanır.
+ * CONCURRENTLY ile oluşturulduğu için tabloyu yazmaya kilitlemez.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatabaseIndexInitializer implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.storage.create-search-indexes:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_messages_headers_gin " +
+                    "ON messages USING GIN (headers jsonb_path_ops)");
+            log.info("✅ messages.headers GIN index hazır");
+        } catch (Exception e) {
+            log.warn("⚠️ messages.headers GIN index oluşturulamadı: {}", e.getMessage());
+        }
+    }
+}
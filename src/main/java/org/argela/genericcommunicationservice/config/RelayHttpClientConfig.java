@@ -0,0 +1,224 @@
+package org.argela.genericcommunicationservice.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.argela.genericcommunicationservice.service.http.DeadlineDnsResolver;
+import org.argela.genericcommunicationservice.service.http.Http2ClientHttpRequestFactory;
+import org.argela.genericcommunicationservice.service.http.RelayClientHttpRequestFactory;
+import org.argela.genericcommunicationservice.service.http.RelayDeadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.NoOpResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * HTTP relay client konfigürasyonu.
+ * HttpRelaySender'ın kullandığı RestTemplate; boyutu, TTL'i ve idle temizliği ayarlanabilen
+ * pooled bir HttpClient5 üzerinde çalışır. HTTP/2 açıksa listelenen host'lar ayrı bir async
+ * client üzerinden (TLS'te ALPN ile) HTTP/2 konuşur. Her iki havuz da Micrometer'a bağlanır:
+ * httpcomponents.httpclient.pool.total.connections{state=leased|available}, .total.pending, .total.max
+ * Çağrının deadline'ı varsa (RelayDeadline) lease, DNS, connect ve read süreleri kalan bütçeyle sınırlanır.
+ */
+@Slf4j
+@Configuration
+public class RelayHttpClientConfig {
+
+    @Value("${app.relay.http.pool.max-total:200}")
+    private int maxTotal;
+
+    @Value("${app.relay.http.pool.max-per-route:50}")
+    private int maxPerRoute;
+
+    @Value("${app.relay.http.pool.ttl-ms:300000}")
+    private long connectionTtlMs;
+
+    @Value("${app.relay.http.pool.idle-evict-ms:30000}")
+    private long idleEvictMs;
+
+    @Value("${app.relay.http.pool.validate-after-inactivity-ms:2000}")
+    private long validateAfterInactivityMs;
+
+    @Value("${app.relay.http.connect-timeout-ms:30000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.relay.http.read-timeout-ms:60000}")
+    private long readTimeoutMs;
+
+    @Value("${app.relay.http.lease-timeout-ms:5000}")
+    private long leaseTimeoutMs;
+
+    @Value("${app.relay.http.http2.hosts:*}")
+    private String http2Hosts;
+
+    // NEGOTIATE: TLS'te ALPN ile h2, düz HTTP'de HTTP/1.1 | FORCE_HTTP_2: h2c prior knowledge dahil
+    @Value("${app.relay.http.http2.version-policy:NEGOTIATE}")
+    private HttpVersionPolicy http2VersionPolicy;
+
+    @Value("${app.relay.http.http2.max-concurrent-streams:100}")
+    private int http2MaxConcurrentStreams;
+
+    // =============== HTTP/1.1 POOL ===============
+
+    @Bean(destroyMethod = "close")
+    public DeadlineDnsResolver relayDnsResolver() {
+        return new DeadlineDnsResolver();
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager relayConnectionManager(DeadlineDnsResolver relayDnsResolver) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setDnsResolver(relayDnsResolver)
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(connectionConfig())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient relayHttpClient(PoolingHttpClientConnectionManager relayConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(relayConnectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictMs))
+                .build();
+    }
+
+    @Bean
+    public MeterBinder relayConnectionPoolMetrics(PoolingHttpClientConnectionManager relayConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(relayConnectionManager, "relay");
+    }
+
+    // =============== HTTP/2 POOL ===============
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.relay.http.http2.enabled", havingValue = "true")
+    public PoolingAsyncClientConnectionManager relayHttp2ConnectionManager() {
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(connectionConfig())
+                .setDefaultTlsConfig(TlsConfig.custom().setVersionPolicy(http2VersionPolicy).build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.relay.http.http2.enabled", havingValue = "true")
+    public CloseableHttpAsyncClient relayHttp2Client(PoolingAsyncClientConnectionManager relayHttp2ConnectionManager) {
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(relayHttp2ConnectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .setH2Config(H2Config.custom().setMaxConcurrentStreams(http2MaxConcurrentStreams).build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictMs))
+                .build();
+        client.start();
+        log.info("✅ HTTP/2 relay client başlatıldı - policy: {}, host'lar: {}", http2VersionPolicy, http2Hosts);
+        return client;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.relay.http.http2.enabled", havingValue = "true")
+    public MeterBinder relayHttp2ConnectionPoolMetrics(PoolingAsyncClientConnectionManager relayHttp2ConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(relayHttp2ConnectionManager, "relay-h2");
+    }
+
+    // =============== REST TEMPLATE ===============
+
+    @Bean
+    public RestTemplate relayRestTemplate(RestTemplateBuilder builder,
+                                          CloseableHttpClient relayHttpClient,
+                                          Optional<CloseableHttpAsyncClient> relayHttp2Client) {
+        HttpComponentsClientHttpRequestFactory http1Factory = new HttpComponentsClientHttpRequestFactory(relayHttpClient);
+        http1Factory.setHttpContextFactory((method, uri) -> deadlineContext());
+        ClientHttpRequestFactory http2Factory = relayHttp2Client
+                .map(client -> new Http2ClientHttpRequestFactory(client, Duration.ofMillis(readTimeoutMs)))
+                .orElse(null);
+
+        ClientHttpRequestFactory requestFactory = new RelayClientHttpRequestFactory(http1Factory, http2Factory, parseHosts(http2Hosts));
+        log.info("✅ Relay HTTP pool - max-total: {}, max-per-route: {}, ttl: {}ms, idle-evict: {}ms, http2: {}",
+                maxTotal, maxPerRoute, connectionTtlMs, idleEvictMs, http2Factory != null);
+
+        // 4xx/5xx exception'a çevrilmez: HttpRelaySender yanıtı kendisi limitli okuyup sınıflandırır
+        return builder
+                .requestFactory(() -> requestFactory)
+                .errorHandler(new NoOpResponseErrorHandler())
+                .build();
+    }
+
+    private ConnectionConfig connectionConfig() {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setTimeToLive(TimeValue.ofMilliseconds(connectionTtlMs))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                .build();
+    }
+
+    private RequestConfig requestConfig() {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(leaseTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build();
+    }
+
+    /**
+     * Deadline'lı çağrıda lease/connect/response timeout'ları kalan bütçeye indirilmiş RequestConfig.
+     * Deadline yoksa null - factory client'ın varsayılan RequestConfig'ini kullanır.
+     */
+    @SuppressWarnings("deprecation") // RequestConfig.connectTimeout hâlâ ConnectionConfig'i istek bazında ezer
+    private HttpContext deadlineContext() {
+        long remaining = RelayDeadline.remainingMillis();
+        if (remaining == Long.MAX_VALUE) {
+            return null;
+        }
+        long budget = Math.max(1, remaining);
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(Math.min(leaseTimeoutMs, budget)))
+                .setConnectTimeout(Timeout.ofMilliseconds(Math.min(connectTimeoutMs, budget)))
+                .setResponseTimeout(Timeout.ofMilliseconds(Math.min(readTimeoutMs, budget)))
+                .build());
+        return context;
+    }
+
+    private static Set<String> parseHosts(String hosts) {
+        if (hosts == null || hosts.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(hosts.split(","))
+                .map(String::trim)
+                .filter(host -> !host.isEmpty())
+                .map(String::toLowerCase)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -3,6 +3,7 @@ package org.argela.genericcommunicationservice.config;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
@@ -10,11 +11,13 @@ import java.time.Duration;
 /**
  * RestTemplate konfigürasyonu.
  * HTTP çağrıları için timeout ve diğer ayarları içerir.
+ * Relay çağrıları ayrı bir pooled RestTemplate kullanır (bkz. RelayHttpClientConfig).
  */
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
+    @Primary
     public RestTemplate restTemplate(RestTemplateBuilder builder) {
         return builder
                 .connectTimeout(Duration.ofSeconds(30))      // ✅ Yeni API
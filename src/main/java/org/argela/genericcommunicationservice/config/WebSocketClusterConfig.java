@@ -0,0 +1,69 @@
+package org.argela.genericcommunicationservice.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Çoklu replika WebSocket fan-out konfigürasyonu (app.websocket.cluster.enabled=true).
+ * Her node primary RabbitMQ bağlantısı üzerinde ortak bir fanout exchange'e, kendine ait
+ * geçici (exclusive, auto-delete) bir queue bağlar; yayınlanan frame'ler tüm node'lara ulaşır.
+ * Yayınlar kısa timeout'lu ayrı bir bağlantıdan yapılır: broker yavaşken primary bağlantının 30s connect
+ * ve 5s channel timeout'ları cluster yayınını beklemez, listener'ların kanallarıyla yarışılmaz.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.websocket.cluster.enabled", havingValue = "true")
+public class WebSocketClusterConfig {
+
+    @Value("${app.websocket.cluster.exchange:gcs.websocket.fanout}")
+    private String exchangeName;
+
+    @Value("${app.websocket.cluster.publish-timeout-ms:2000}")
+    private int publishTimeoutMs;
+
+    @Bean
+    public FanoutExchange webSocketClusterExchange() {
+        return new FanoutExchange(exchangeName, true, false);
+    }
+
+    /**
+     * Node'a özel queue - node kapanınca silinir, yeniden başlayınca yeni isimle oluşur
+     */
+    @Bean
+    public AnonymousQueue webSocketClusterQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("gcs.websocket."));
+    }
+
+    /**
+     * Cluster yayınları için primary ile aynı broker'a, kısa connect/channel timeout'lu bağlantı
+     */
+    @Bean
+    public CachingConnectionFactory webSocketClusterPublisherConnectionFactory(CachingConnectionFactory connectionFactory) {
+        CachingConnectionFactory factory = new CachingConnectionFactory();
+        factory.setHost(connectionFactory.getHost());
+        factory.setPort(connectionFactory.getPort());
+        factory.setUsername(connectionFactory.getUsername());
+        factory.setPassword(connectionFactory.getRabbitConnectionFactory().getPassword());
+        factory.setVirtualHost(connectionFactory.getVirtualHost());
+
+        // Tek yayın thread'i kullanır
+        factory.setConnectionTimeout(publishTimeoutMs);
+        factory.setChannelCacheSize(1);
+        factory.setChannelCheckoutTimeout(publishTimeoutMs);
+        factory.setRequestedHeartBeat(60);
+        factory.setConnectionNameStrategy(cf -> "GCS-WebSocket-Cluster");
+        return factory;
+    }
+
+    @Bean
+    public Binding webSocketClusterBinding(FanoutExchange webSocketClusterExchange, AnonymousQueue webSocketClusterQueue) {
+        return BindingBuilder.bind(webSocketClusterQueue).to(webSocketClusterExchange);
+    }
+}
@@ -0,0 +1,120 @@
+package org.argela.genericcommunicationservice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import static org.argela.genericcommunicationservice.service.websocket.WebSocketCompressionStats.PERMESSAGE_DEFLATE;
+
+/**
+ * WebSocket permessage-deflate (RFC 7692) negotiation ayarları - /ws ve /websocket handshake'leri.
+ * Client deflate teklif ederse Tomcat kabul eder ve tüm frame'leri sıkıştırır; seviye ve minimum frame boyutu
+ * container'da sabittir (Deflater varsayılanı, her frame). Burada handshake'teki Sec-WebSocket-Extensions teklifi düzenlenir:
+ * - app.websocket.compression.enabled=false: deflate teklifi çıkarılır, sıkıştırma negotiate edilmez
+ * - app.websocket.compression.context-takeover=false: teklife server/client_no_context_takeover eklenir; her mesaj
+ *   bağımsız sıkıştırılır, bağlantı başına deflate penceresi tutulmaz (binlerce client'ta bellek için)
+ */
+@Slf4j
+@Configuration
+public class WebSocketCompressionConfig {
+
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+
+    @Value("${app.websocket.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.websocket.compression.context-takeover:true}")
+    private boolean contextTakeover;
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> webSocketCompressionFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new ExtensionOfferFilter());
+        registration.addUrlPatterns("/ws/*", "/websocket");
+        registration.setName("webSocketCompressionFilter");
+        log.info("✅ WebSocket permessage-deflate: {}, context takeover: {}", enabled ? "açık" : "kapalı", contextTakeover);
+        return registration;
+    }
+
+    /**
+     * Teklifteki permessage-deflate girişlerini ayarlara göre düzenler (diğer extension'lara dokunmaz)
+     */
+    private List<String> rewriteOffer(Enumeration<String> values) {
+        List<String> offers = new ArrayList<>();
+        while (values.hasMoreElements()) {
+            for (String offer : values.nextElement().split(",")) {
+                String trimmed = offer.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                String name = trimmed.split(";", 2)[0].trim();
+                if (!PERMESSAGE_DEFLATE.equalsIgnoreCase(name)) {
+                    offers.add(trimmed);
+                } else if (enabled) {
+                    offers.add(contextTakeover ? trimmed : withoutContextTakeover(trimmed));
+                }
+            }
+        }
+        return offers;
+    }
+
+    private static String withoutContextTakeover(String offer) {
+        StringBuilder result = new StringBuilder(offer);
+        if (!offer.contains(SERVER_NO_CONTEXT_TAKEOVER)) {
+            result.append("; ").append(SERVER_NO_CONTEXT_TAKEOVER);
+        }
+        if (!offer.contains(CLIENT_NO_CONTEXT_TAKEOVER)) {
+            result.append("; ").append(CLIENT_NO_CONTEXT_TAKEOVER);
+        }
+        return result.toString();
+    }
+
+    // =============== FILTER ===============
+
+    private class ExtensionOfferFilter extends OncePerRequestFilter {
+
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            // Varsayılan ayarlarda teklif olduğu gibi geçer
+            return (enabled && contextTakeover) || request.getHeader(WebSocketHttpHeaders.SEC_WEBSOCKET_EXTENSIONS) == null;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            List<String> offers = rewriteOffer(request.getHeaders(WebSocketHttpHeaders.SEC_WEBSOCKET_EXTENSIONS));
+            chain.doFilter(new HttpServletRequestWrapper(request) {
+                @Override
+                public String getHeader(String name) {
+                    if (WebSocketHttpHeaders.SEC_WEBSOCKET_EXTENSIONS.equalsIgnoreCase(name)) {
+                        return offers.isEmpty() ? null : String.join(", ", offers);
+                    }
+                    return super.getHeader(name);
+                }
+
+                @Override
+                public Enumeration<String> getHeaders(String name) {
+                    if (WebSocketHttpHeaders.SEC_WEBSOCKET_EXTENSIONS.equalsIgnoreCase(name)) {
+                        return Collections.enumeration(offers.isEmpty() ? List.of() : List.of(String.join(", ", offers)));
+                    }
+                    return super.getHeaders(name);
+                }
+            }, response);
+        }
+    }
+}
@@ -1,10 +1,32 @@
 package org.argela.genericcommunicationservice.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketCompressionStats;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketPayloadCodec;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketReplayBuffer;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketSessionRegistry;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketSlowConsumers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.SimpleBrokerRegistration;
+import org.springframework.messaging.simp.config.TaskExecutorRegistration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * WebSocket ve STOMP protokol konfigürasyonu.
@@ -14,22 +36,117 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  * - /topic/*: Broadcast mesajları
  * - /user/*: User-specific mesajları
  * - /app/*: Client-to-server mesajları
+ *
+ * Inbound/outbound/broker kanallarının thread pool'ları ve transport limitleri app.websocket altından ayarlanır.
+ * Session'lar worker'lara dağılırken her session'ın mesaj sırası korunur: inbound'da Spring'in preserve receive order'ı,
+ * outbound'da WebSocketSlowConsumers'ın session kuyruğu (app.websocket.preserve-order).
+ * Kanal başına kuyruk derinliği, aktif thread ve görev bekleme/çalışma süreleri Micrometer'a verilir:
+ * websocket.channel.queue.size, websocket.channel.active, websocket.channel.task.wait, websocket.channel.task.execution
+ * CONNECT'ler WebSocketSessionRegistry'den geçer (maxConnections); broker heartbeat'i primary websocket'ten alınır.
+ * Endpoint başına giden byte'lar ve permessage-deflate tasarrufu WebSocketCompressionStats ile ölçülür
+ * (negotiation ayarları: WebSocketCompressionConfig).
+ * 'from-seq' ile SUBSCRIBE olan client'lara kaçırdığı topic frame'leri WebSocketReplayBuffer'dan tekrar gönderilir.
+ * Payload encoding'i (JSON / CBOR / Smile / MessagePack) CONNECT'te 'payload-encoding' ile seçilir (WebSocketPayloadCodec).
+ * Yavaş client'lara giden mesajlar session kuyruğunda izlenir, limit aşılınca politika uygulanır (WebSocketSlowConsumers);
+ * latest-value destination'larda aynı aboneliğin bekleyen değeri yenisiyle değiştirilir (WebSocketConflation).
  */
+@Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final MeterRegistry meterRegistry;
+    private final WebSocketSessionRegistry webSocketSessionRegistry;
+    private final WebSocketCompressionStats webSocketCompressionStats;
+    private final WebSocketReplayBuffer webSocketReplayBuffer;
+    private final WebSocketPayloadCodec webSocketPayloadCodec;
+    private final WebSocketSlowConsumers webSocketSlowConsumers;
+
+    // Broker heartbeat'i için Spring'in broker scheduler'ı (broker konfigürasyonu sırasında henüz oluşmadığından lazy)
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    // 0 = Spring varsayılanı (core: 2 x CPU, max/queue: sınırsız)
+    @Value("${app.websocket.channels.inbound.core-pool-size:0}")
+    private int inboundCorePoolSize;
+
+    @Value("${app.websocket.channels.inbound.max-pool-size:0}")
+    private int inboundMaxPoolSize;
+
+    @Value("${app.websocket.channels.inbound.queue-capacity:0}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.websocket.channels.outbound.core-pool-size:0}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.channels.outbound.max-pool-size:0}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.channels.outbound.queue-capacity:0}")
+    private int outboundQueueCapacity;
+
+    @Value("${app.websocket.channels.broker.core-pool-size:0}")
+    private int brokerCorePoolSize;
+
+    @Value("${app.websocket.channels.broker.max-pool-size:0}")
+    private int brokerMaxPoolSize;
+
+    @Value("${app.websocket.channels.broker.queue-capacity:0}")
+    private int brokerQueueCapacity;
+
+    @Value("${app.websocket.channels.keep-alive-seconds:60}")
+    private int keepAliveSeconds;
+
+    // Yavaş client'a tek gönderimin sürebileceği en uzun süre / biriktirilebilecek en fazla byte
+    @Value("${app.websocket.transport.send-time-limit-ms:15000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${app.websocket.transport.time-to-first-message-ms:60000}")
+    private int timeToFirstMessageMs;
+
+    @Value("${app.websocket.preserve-order:true}")
+    private boolean preserveOrder;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Simple in-memory message broker kullan
-        // Prodüksiyon için RabbitMQ veya Redis kullanılabilir
-        config.enableSimpleBroker("/topic", "/user");
+        // Çoklu replikada app.websocket.cluster.enabled ile frame'ler RabbitMQ üzerinden tüm node'lara dağıtılır
+        SimpleBrokerRegistration broker = config.enableSimpleBroker("/topic", "/user");
+
+        // Sunucu ve client heartbeat'i (0 = kapalı) - kopan client'lar bu sürede düşürülür
+        long heartbeatMs = webSocketSessionRegistry.heartbeatIntervalMs();
+        if (heartbeatMs > 0) {
+            broker.setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+            log.info("✅ STOMP broker heartbeat: {}ms", heartbeatMs);
+        }
 
         // Client-to-server mesajları için prefix
         config.setApplicationDestinationPrefixes("/app");
 
         // User-specific mesajlar için prefix
         config.setUserDestinationPrefix("/user");
+
+        // Aynı session'a giden mesajların sırasını WebSocketSlowConsumers'ın session kuyruğu korur (preserve-order).
+        // Spring'inki açık olursa sonraki mesajlar onun sınırsız kuyruğunda bekler ve slow consumer limitleri işlemez.
+        config.setPreservePublishOrder(false);
+
+        // Broker kanalı varsayılan olarak senkron çalışır; pool boyutu verilirse ayrı executor'a alınır
+        if (brokerCorePoolSize > 0) {
+            configureExecutor(config.configureBrokerChannel(), "broker",
+                    brokerCorePoolSize, brokerMaxPoolSize, brokerQueueCapacity);
+        }
     }
 
     @Override
@@ -42,5 +159,99 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Raw WebSocket (SockJS olmadan)
         registry.addEndpoint("/websocket")
                 .setAllowedOriginPatterns("*");
+
+        // Bir session'dan gelen mesajlar gönderildiği sırayla işlenir
+        registry.setPreserveReceiveOrder(preserveOrder);
+    }
+
+    // =============== KANALLAR ===============
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        configureExecutor(registration, "inbound", inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity);
+        registration.interceptors(webSocketSessionRegistry, webSocketReplayBuffer, webSocketPayloadCodec);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configureExecutor(registration, "outbound", outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity);
+        // Encoding çevirisi session kuyruğundan önce - bekletilen mesajlar handler'a doğrudan verilir
+        registration.interceptors(webSocketPayloadCodec, webSocketSlowConsumers);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .setTimeToFirstMessage(timeToFirstMessageMs)
+                .addDecoratorFactory(webSocketCompressionStats)
+                .addDecoratorFactory(webSocketPayloadCodec)
+                .addDecoratorFactory(webSocketSlowConsumers);
+        log.info("✅ WebSocket transport - send-time-limit: {}ms, send-buffer: {} byte, message-size: {} byte",
+                sendTimeLimitMs, sendBufferSizeLimit, messageSizeLimit);
+    }
+
+    private void configureExecutor(ChannelRegistration registration, String channel,
+                                   int corePoolSize, int maxPoolSize, int queueCapacity) {
+        TaskExecutorRegistration executor = registration.taskExecutor(instrumentedExecutor(channel))
+                .keepAliveSeconds(keepAliveSeconds);
+        if (corePoolSize > 0) {
+            executor.corePoolSize(corePoolSize);
+        }
+        if (maxPoolSize > 0) {
+            executor.maxPoolSize(maxPoolSize);
+        }
+        if (queueCapacity > 0) {
+            executor.queueCapacity(queueCapacity);
+        }
+    }
+
+    /**
+     * Görevin kuyrukta bekleme ve çalışma süresini ölçen executor; kuyruk derinliği gauge olarak verilir
+     */
+    private ThreadPoolTaskExecutor instrumentedExecutor(String channel) {
+        Timer waitTimer = Timer.builder("websocket.channel.task.wait")
+                .description("STOMP kanal görevinin kuyrukta bekleme süresi")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Timer executionTimer = Timer.builder("websocket.channel.task.execution")
+                .description("STOMP kanal görevinin çalışma süresi")
+                .tag("channel", channel)
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ws-" + channel + "-");
+        executor.setTaskDecorator(task -> {
+            long queuedAt = System.nanoTime();
+            return () -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    executionTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+
+        Gauge.builder("websocket.channel.queue.size", executor, WebSocketConfig::queueSize)
+                .description("STOMP kanalında işlenmeyi bekleyen görev sayısı")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("STOMP kanalında çalışan thread sayısı")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    // Executor henüz başlatılmadıysa 0
+    private static double queueSize(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            return 0;
+        }
     }
-}
\ No newline at end of file
+}
@@ -4,16 +4,29 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.argela.genericcommunicationservice.dto.MessageSearchCriteria;
 import org.argela.genericcommunicationservice.entity.MessageEntity;
+import org.argela.genericcommunicationservice.entity.MessageRollupEntity;
+import org.argela.genericcommunicationservice.enums.MessageStatus;
+import org.argela.genericcommunicationservice.enums.ProtocolType;
 import org.argela.genericcommunicationservice.service.MessageService;
+import org.argela.genericcommunicationservice.service.rollup.MessageRollupService;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -22,6 +35,7 @@ import java.util.Map;
 public class GeneralMessageController {
 
     private final MessageService messageService;
+    private final MessageRollupService messageRollupService;
 
     @GetMapping("/messages")
     @Operation(summary = "Tüm mesajları listele",
@@ -44,6 +58,54 @@ public class GeneralMessageController {
         return ResponseEntity.ok(messageService.getAllMessages(pageable));
     }
 
+    @GetMapping("/messages/search")
+    @Operation(summary = "Mesaj ara",
+            description = "Header değeri (örn. X-Trace-Id, routing-key, userId), sender, groupId, status, protokol " +
+                    "ve zaman aralığı ile arama. Header filtresi jsonb containment ile GIN index üzerinden çalışır.")
+    public ResponseEntity<Page<MessageEntity>> searchMessages(
+            @ParameterObject MessageSearchCriteria criteria,
+            @Parameter(hidden = true)
+            @PageableDefault(size = 20, sort = "timestamp", direction = Sort.Direction.DESC)
+            Pageable pageable
+    ) {
+        return ResponseEntity.ok(messageService.searchMessages(criteria, pageable));
+    }
+
+    @GetMapping("/messages/export")
+    @Operation(summary = "Mesajları NDJSON olarak dışa aktar",
+            description = "Her satır bir mesaj (JSON). Sonuçlar server-side cursor ile akıtılır, bellek kullanımı " +
+                    "sonuç boyutundan bağımsızdır. gzip=true ise yanıt Content-Encoding: gzip ile sıkıştırılır.")
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @Parameter(description = "Protokol filtresi (REST, RABBITMQ, WEBSOCKET)")
+            @RequestParam(required = false) ProtocolType protocol,
+            @Parameter(description = "Status filtresi")
+            @RequestParam(required = false) MessageStatus status,
+            @Parameter(description = "Başlangıç zamanı (ISO-8601, dahil)", example = "2024-01-01T00:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "Bitiş zamanı (ISO-8601, hariç)", example = "2024-01-02T00:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @Parameter(description = "Yanıtı gzip ile sıkıştır")
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                messageService.exportMessages(protocol, status, from, to, gzipOut);
+                gzipOut.finish();
+            } else {
+                messageService.exportMessages(protocol, status, from, to, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"messages.ndjson\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/messages/statistics")
     @Operation(summary = "Mesaj istatistikleri",
             description = "Protokol bazlı mesaj sayıları")
@@ -51,6 +113,25 @@ public class GeneralMessageController {
         return ResponseEntity.ok(messageService.getMessageStatistics());
     }
 
+    @GetMapping("/messages/rollups")
+    @Operation(summary = "Dakikalık mesaj rollup'ları",
+            description = "Protokol / hedef (broker key, websocket key, relay host) / status bazında " +
+                    "dakikalık mesaj sayıları ve latency özetleri. from/to verilmezse son 24 saat.")
+    public ResponseEntity<List<MessageRollupEntity>> getRollups(
+            @Parameter(description = "Başlangıç zamanı (ISO-8601)", example = "2024-01-01T00:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "Bitiş zamanı (ISO-8601, hariç)", example = "2024-01-02T00:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @Parameter(description = "Protokol filtresi (REST, RABBITMQ, WEBSOCKET)")
+            @RequestParam(required = false) ProtocolType protocol,
+            @Parameter(description = "Hedef filtresi (broker key, websocket key veya host[:port])")
+            @RequestParam(required = false) String target,
+            @Parameter(description = "Status filtresi")
+            @RequestParam(required = false) MessageStatus status
+    ) {
+        return ResponseEntity.ok(messageRollupService.query(from, to, protocol, target, status));
+    }
+
     @DeleteMapping("/messages")
     @Operation(summary = "Tüm mesajları sil",
             description = "DİKKAT: Bu işlem geri alınamaz!")
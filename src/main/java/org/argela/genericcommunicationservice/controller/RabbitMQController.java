@@ -16,6 +16,7 @@ import org.argela.genericcommunicationservice.enums.ProtocolType;
 import org.argela.genericcommunicationservice.service.MessageService;
 import org.argela.genericcommunicationservice.service.RabbitMQBrokerService;
 import org.argela.genericcommunicationservice.service.rabbit.RabbitPublisher;
+import org.argela.genericcommunicationservice.service.rollup.MessageRollupService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -36,6 +37,7 @@ public class RabbitMQController {
     private final MessageService messageService;
     private final RabbitMQBrokerService rabbitMQBrokerService;  // ✅ Tek service
     private final RabbitPublisher rabbitPublisher;
+    private final MessageRollupService messageRollupService;
 
     @PostMapping("/publish")
     @Operation(summary = "🚀 RabbitMQ mesajı gönder",
@@ -93,7 +95,11 @@ public class RabbitMQController {
         MessageEntity savedMessage = messageService.saveRabbitMessage(dto, MessageStatus.QUEUED);
 
         // 2️⃣ Database'den broker'a gönder (yeni sistem)
+        long startNanos = System.nanoTime();
         RabbitPublisher.RabbitSendResult result = rabbitPublisher.publish(dto);
+        messageRollupService.record(ProtocolType.RABBITMQ, brokerKey,
+                result.isSuccess() ? MessageStatus.QUEUED : MessageStatus.FAILED,
+                (System.nanoTime() - startNanos) / 1_000_000);
 
         // 3️⃣ Başarısızsa durumu güncelle
         if (!result.isSuccess()) {
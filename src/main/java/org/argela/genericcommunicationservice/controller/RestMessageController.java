@@ -8,11 +8,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.argela.genericcommunicationservice.dto.RestSendDto;
+import org.argela.genericcommunicationservice.dto.RestSubscriberSetDto;
 import org.argela.genericcommunicationservice.entity.MessageEntity;
-import org.argela.genericcommunicationservice.enums.MessageStatus;
+import org.argela.genericcommunicationservice.entity.RelayAttemptEntity;
+import org.argela.genericcommunicationservice.entity.RestSubscriberSetEntity;
 import org.argela.genericcommunicationservice.enums.ProtocolType;
 import org.argela.genericcommunicationservice.service.MessageService;
-import org.argela.genericcommunicationservice.service.http.HttpRelaySender;
+import org.argela.genericcommunicationservice.service.http.AdaptiveConcurrencyLimiter;
+import org.argela.genericcommunicationservice.service.http.RelayResponseCache;
+import org.argela.genericcommunicationservice.service.http.RelayTargetGuard;
+import org.argela.genericcommunicationservice.service.http.RestRelayService;
+import org.argela.genericcommunicationservice.service.http.RestSubscriberSetService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -20,6 +26,10 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/rest")
 @Tag(name = "REST Messages", description = "REST protokolü için mesaj işlemleri")
@@ -27,7 +37,11 @@ import org.springframework.web.bind.annotation.*;
 public class RestMessageController {
 
     private final MessageService messageService;
-    private final HttpRelaySender httpRelaySender;
+    private final RestRelayService restRelayService;
+    private final RelayTargetGuard relayTargetGuard;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final RelayResponseCache relayResponseCache;
+    private final RestSubscriberSetService restSubscriberSetService;
 
     @PostMapping("/send")
     @Operation(summary = "HTTP mesajı gönder",
@@ -55,29 +69,91 @@ public class RestMessageController {
                     )
             ))
     public ResponseEntity<MessageEntity> send(@Valid @RequestBody RestSendDto dto) {
+        return ResponseEntity.ok(restRelayService.send(dto));
+    }
 
-        // 1) İlk olarak mesajı RECEIVED statusu ile kaydet
-        MessageEntity savedMessage = messageService.saveRestMessage(dto, MessageStatus.RECEIVED);
+    @PostMapping("/send-async")
+    @Operation(summary = "HTTP mesajını async gönder",
+            description = "Mesajı QUEUED olarak kaydeder ve 202 + mesaj id'si ile hemen döner. " +
+                    "Çağrı arka planda yapılır; sonuç GET /api/v1/rest/messages/{id} ile izlenir, " +
+                    "'callbackUrl' verilmişse sonuç oraya POST edilir.")
+    public ResponseEntity<MessageEntity> sendAsync(@Valid @RequestBody RestSendDto dto) {
+        MessageEntity queued = restRelayService.sendAsync(dto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/rest/messages/" + queued.getId()))
+                .body(queued);
+    }
 
-        // 2) HTTP çağrısını yap
-        HttpRelaySender.HttpRelayResult result = httpRelaySender.send(dto);
+    @GetMapping("/messages/{id}")
+    @Operation(summary = "REST mesajını getir",
+            description = "Async gönderilen mesajın durumunu ve yanıtını izlemek için")
+    public ResponseEntity<MessageEntity> get(@PathVariable Long id) {
+        return ResponseEntity.of(messageService.findMessage(id)
+                .filter(message -> message.getProtocol() == ProtocolType.REST));
+    }
 
-        // 3) Sonuca göre status'u güncelle
-        MessageStatus finalStatus = result.isDelivered() ? MessageStatus.DELIVERED : MessageStatus.FAILED;
+    @GetMapping("/messages/{id}/attempts")
+    @Operation(summary = "Fan-out denemelerini getir",
+            description = "Fan-out gönderilen mesajın hedef bazlı sonuçları (status, yanıt kodu, hata nedeni, latency)")
+    public ResponseEntity<List<RelayAttemptEntity>> attempts(@PathVariable Long id) {
+        return ResponseEntity.ok(restRelayService.getAttempts(id));
+    }
 
-        // 4) Mesajı güncelle
-        MessageEntity updatedMessage = messageService.updateMessageStatus(savedMessage.getId(), finalStatus);
+    @GetMapping("/subscriber-sets")
+    @Operation(summary = "Abone kümelerini listele")
+    public ResponseEntity<List<RestSubscriberSetEntity>> listSubscriberSets() {
+        return ResponseEntity.ok(restSubscriberSetService.list());
+    }
+
+    @PostMapping("/subscriber-sets")
+    @Operation(summary = "Abone kümesi oluştur/güncelle",
+            description = "İsimli webhook URL listesi. RestSendDto.subscriberSet ile tüm URL'lere fan-out yapılır.")
+    public ResponseEntity<RestSubscriberSetEntity> saveSubscriberSet(@Valid @RequestBody RestSubscriberSetDto dto) {
+        return ResponseEntity.ok(restSubscriberSetService.save(dto.getName(), dto.getUrls(), dto.getDescription()));
+    }
 
-        // 5) Hata varsa body'e error detayını da ekle
-        if (!result.isSuccess() && result.getErrorMessage() != null) {
-            String originalBody = updatedMessage.getBody() != null ? updatedMessage.getBody() : "";
-            String errorDetails = String.format("%s\n\nERROR: %s\nRESPONSE: %s",
-                    originalBody, result.getErrorMessage(), result.getResponseBody());
-            updatedMessage.setBody(errorDetails);
-            messageService.updateMessage(updatedMessage);
+    @DeleteMapping("/subscriber-sets/{name}")
+    @Operation(summary = "Abone kümesini sil")
+    public ResponseEntity<Void> deleteSubscriberSet(@PathVariable String name) {
+        return restSubscriberSetService.delete(name) ?
+                ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/targets")
+    @Operation(summary = "Relay hedeflerinin durumu",
+            description = "Host bazında circuit breaker durumu, devam eden çağrı sayısı ve reddedilen çağrı sayıları")
+    public ResponseEntity<List<Map<String, Object>>> targets() {
+        return ResponseEntity.ok(relayTargetGuard.snapshot());
+    }
+
+    @GetMapping("/targets/limits")
+    @Operation(summary = "Relay hedeflerinin adaptif limitleri",
+            description = "Host bazında güncel eşzamanlılık limiti, devam eden/kuyruktaki çağrılar ve kısa/uzun RTT")
+    public ResponseEntity<List<Map<String, Object>>> targetLimits() {
+        return ResponseEntity.ok(adaptiveConcurrencyLimiter.snapshot());
+    }
+
+    @PostMapping("/targets/{target}/reset")
+    @Operation(summary = "Hedefin circuit breaker'ını sıfırla",
+            description = "Hedef (host[:port]) düzeldiğinde açık breaker'ı beklemeden kapatır")
+    public ResponseEntity<Map<String, Object>> resetTarget(@PathVariable String target) {
+        if (!relayTargetGuard.reset(target)) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(Map.of("target", target, "state", RelayTargetGuard.CircuitState.CLOSED));
+    }
+
+    @GetMapping("/cache")
+    @Operation(summary = "GET relay önbellek istatistikleri",
+            description = "Kayıt sayısı, HIT / REVALIDATED / MISS sayıları ve isabet oranı")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(relayResponseCache.stats());
+    }
 
-        return ResponseEntity.ok(updatedMessage);
+    @DeleteMapping("/cache")
+    @Operation(summary = "GET relay önbelleğini temizle")
+    public ResponseEntity<Map<String, Object>> clearCache() {
+        return ResponseEntity.ok(Map.of("removed", relayResponseCache.clear()));
     }
 
     @GetMapping("/messages")
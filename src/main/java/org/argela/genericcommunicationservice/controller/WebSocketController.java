@@ -13,8 +13,15 @@ import org.argela.genericcommunicationservice.entity.MessageEntity;
 import org.argela.genericcommunicationservice.enums.MessageStatus;
 import org.argela.genericcommunicationservice.enums.ProtocolType;
 import org.argela.genericcommunicationservice.service.MessageService;
+import org.argela.genericcommunicationservice.service.rollup.MessageRollupService;
 import org.argela.genericcommunicationservice.service.websocket.WebSocketService;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketCompressionStats;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketConflation;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketReplayBuffer;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketSessionRegistry;
 import org.argela.genericcommunicationservice.service.websocket.WebSocketSender;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketSlowConsumers;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -22,6 +29,9 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -34,6 +44,15 @@ public class WebSocketController {
     private final MessageService messageService;
     private final WebSocketService webSocketService;
     private final WebSocketSender webSocketSender;
+    private final MessageRollupService messageRollupService;
+    private final WebSocketSessionRegistry webSocketSessionRegistry;
+    private final WebSocketConflation webSocketConflation;
+    private final WebSocketCompressionStats webSocketCompressionStats;
+    private final WebSocketReplayBuffer webSocketReplayBuffer;
+    private final WebSocketSlowConsumers webSocketSlowConsumers;
+
+    @Value("${app.websocket.batch.max-items:1000}")
+    private int batchMaxItems;
 
     @PostMapping("/publish")
     @Operation(summary = "🚀 WebSocket mesajı gönder",
@@ -105,7 +124,11 @@ public class WebSocketController {
         MessageEntity savedMessage = messageService.saveWebSocketMessage(dto, MessageStatus.QUEUED);
 
         // 2️⃣ WebSocket'e gönder
+        long startNanos = System.nanoTime();
         WebSocketSender.WebSocketSendResult result = webSocketSender.send(dto);
+        messageRollupService.record(ProtocolType.WEBSOCKET, websocketKey,
+                result.isSuccess() ? MessageStatus.DELIVERED : MessageStatus.FAILED,
+                (System.nanoTime() - startNanos) / 1_000_000);
 
         // 3️⃣ Başarısızsa durumu güncelle
         if (!result.isSuccess()) {
@@ -127,6 +150,58 @@ public class WebSocketController {
         return ResponseEntity.ok(deliveredMessage);
     }
 
+    @PostMapping("/publish/batch")
+    @Operation(summary = "📦 Toplu WebSocket mesajı gönder",
+            description = "Mesaj listesini tek geçişte gönderir: websocket key'leri bir kez doğrulanır, tüm kayıtlar " +
+                    "gönderim sonucuyla (DELIVERED/FAILED) tek batch insert ile yazılır. Sonuçlar giriş sırasıyla döner.")
+    public ResponseEntity<Map<String, Object>> publishBatch(@RequestBody List<@Valid WebSocketSendDto> dtos) {
+        if (dtos.isEmpty() || dtos.size() > batchMaxItems) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Batch 1 ile " + batchMaxItems + " mesaj arasında olmalı",
+                    "size", dtos.size()));
+        }
+        dtos.stream()
+                .filter(dto -> dto.getWebsocket() == null)
+                .forEach(dto -> dto.setWebsocket("websocket-local"));
+
+        // 1️⃣ Tek geçişte gönder
+        long startNanos = System.nanoTime();
+        List<WebSocketSender.WebSocketSendResult> results = webSocketSender.sendAll(dtos);
+        // Rollup mesaj başına gecikme tutar - batch süresi mesajlara bölünür
+        long latencyMs = (System.nanoTime() - startNanos) / dtos.size() / 1_000_000;
+
+        // 2️⃣ Sonuçlarla birlikte tek batch insert
+        List<MessageEntity> saved = messageService.saveWebSocketMessages(dtos, results);
+
+        List<Map<String, Object>> items = new ArrayList<>(dtos.size());
+        int delivered = 0;
+        for (int i = 0; i < dtos.size(); i++) {
+            WebSocketSender.WebSocketSendResult result = results.get(i);
+            MessageStatus status = result.isSuccess() ? MessageStatus.DELIVERED : MessageStatus.FAILED;
+            messageRollupService.record(ProtocolType.WEBSOCKET, dtos.get(i).getWebsocket(), status, latencyMs);
+            if (result.isSuccess()) {
+                delivered++;
+            }
+
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("index", i);
+            item.put("id", saved.get(i).getId());
+            item.put("destination", dtos.get(i).getDestination());
+            item.put("status", status);
+            if (!result.isSuccess()) {
+                item.put("error", result.getErrorMessage());
+            }
+            items.add(item);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("total", dtos.size());
+        response.put("delivered", delivered);
+        response.put("failed", dtos.size() - delivered);
+        response.put("results", items);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/messages")
     @Operation(summary = "📋 WebSocket mesajlarını listele")
     public ResponseEntity<Page<MessageEntity>> list(
@@ -151,6 +226,7 @@ public class WebSocketController {
                                     "endpointUrl", ws.getEndpointUrl(),
                                     "protocolType", ws.getProtocolType(),
                                     "maxConnections", ws.getMaxConnections(),
+                                    "activeConnections", webSocketSessionRegistry.activeConnections(ws.getKey()),
                                     "isPrimary", ws.getIsPrimary(),
                                     "healthStatus", ws.getHealthStatus().name(),
                                     "lastHealthCheck", ws.getLastHealthCheck()
@@ -200,8 +276,32 @@ public class WebSocketController {
     }
 
     @GetMapping("/websockets/stats")
-    @Operation(summary = "📊 WebSocket istatistikleri")
+    @Operation(summary = "📊 WebSocket istatistikleri",
+            description = "Database sayımlarına ek olarak canlı session, destination başına abone ve fan-out bilgisi")
     public ResponseEntity<Map<String, Object>> getWebSocketStats() {
-        return ResponseEntity.ok(webSocketService.getStatistics());
+        Map<String, Object> stats = new LinkedHashMap<>(webSocketService.getStatistics());
+        stats.put("live", webSocketSessionRegistry.snapshot());
+        stats.put("conflation", webSocketConflation.snapshot());
+        stats.put("compression", webSocketCompressionStats.snapshot());
+        stats.put("replay", webSocketReplayBuffer.snapshot());
+        stats.put("slowConsumers", webSocketSlowConsumers.snapshot());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/websockets/slow-consumers")
+    @Operation(summary = "🐢 Yavaş WebSocket client'ları",
+            description = "Slow consumer politikaları/limitleri ve session başına bekleyen mesaj, byte ve yazım süreleri. "
+                    + "all=true ile yavaş olmayan session'lar da listelenir.")
+    public ResponseEntity<Map<String, Object>> getSlowConsumers(
+            @RequestParam(defaultValue = "false") boolean all,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        List<Map<String, Object>> sessions = webSocketSlowConsumers.sessions(all, limit);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("policies", webSocketSlowConsumers.policies());
+        result.put("summary", webSocketSlowConsumers.snapshot());
+        result.put("count", sessions.size());
+        result.put("sessions", sessions);
+        return ResponseEntity.ok(result);
     }
 }
\ No newline at end of file
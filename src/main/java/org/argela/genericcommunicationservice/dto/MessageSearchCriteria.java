@@ -0,0 +1,66 @@
+package org.argela.genericcommunicationservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.argela.genericcommunicationservice.enums.MessageStatus;
+import org.argela.genericcommunicationservice.enums.ProtocolType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mesaj arama filtresi.
+ * Header filtresi jsonb containment (headers @> {...}) ile GIN index üzerinden çalışır.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Header / sender / groupId / status / zaman aralığı ile mesaj arama")
+public class MessageSearchCriteria {
+
+    @Schema(description = "Aranacak header adı", example = "X-Trace-Id")
+    private String headerKey;
+
+    @Schema(description = "Aranacak header değeri (headerKey ile birlikte)", example = "abc123")
+    private String headerValue;
+
+    @Schema(description = "Gönderen kaynak/istemci ID", example = "rest-client-1")
+    private String sender;
+
+    @Schema(description = "Grup kimliği", example = "notification-group")
+    private String groupId;
+
+    @Schema(description = "Mesaj durumu")
+    private MessageStatus status;
+
+    @Schema(description = "Protokol")
+    private ProtocolType protocol;
+
+    @Schema(description = "Başlangıç zamanı (ISO-8601, dahil)", example = "2024-01-01T00:00:00Z")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+
+    @Schema(description = "Bitiş zamanı (ISO-8601, hariç)", example = "2024-01-02T00:00:00Z")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+
+    /**
+     * jsonb containment için header filtresi (boşsa header filtresi uygulanmaz)
+     */
+    public Map<String, String> headerFilter() {
+        Map<String, String> filter = new LinkedHashMap<>();
+        boolean hasKey = headerKey != null && !headerKey.isBlank();
+        boolean hasValue = headerValue != null && !headerValue.isBlank();
+        if (hasValue && !hasKey) {
+            throw new IllegalArgumentException("headerValue için headerKey de belirtilmeli");
+        }
+        if (hasKey && hasValue) {
+            filter.put(headerKey.trim(), headerValue);
+        }
+        return filter;
+    }
+}
@@ -1,11 +1,13 @@
 package org.argela.genericcommunicationservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -48,4 +50,45 @@ public class RestSendDto {
                 """
     )
     private String body;
+
+    @Schema(
+            description = "Async gönderimde (/send-async) sonuç bu URL'e POST edilir (opsiyonel)",
+            example = "http://localhost:8081/api/relay-callback"
+    )
+    private String callbackUrl;
+
+    @Schema(
+            description = "Yanıt gövdesi okunmaz/saklanmaz, sadece status kaydedilir (fire-and-forget)",
+            example = "false",
+            defaultValue = "false"
+    )
+    private Boolean discardResponse;
+
+    @Schema(
+            description = "Fan-out: mesaj bu URL'lerin hepsine paralel gönderilir (headers'daki 'url' yerine)",
+            example = "[\"http://localhost:8081/api/webhook\", \"http://localhost:8082/api/webhook\"]"
+    )
+    private List<String> targetUrls;
+
+    @Schema(
+            description = "Fan-out: isimli abone kümesi (POST /api/v1/rest/subscriber-sets ile tanımlanır)",
+            example = "order-events"
+    )
+    private String subscriberSet;
+
+    @Schema(
+            description = "Batch: aynı URL+method'a kısa pencere içinde gelen JSON mesajları tek bir JSON array POST'unda " +
+                    "birleştirilir (app.relay.batch.enabled gerekir)",
+            example = "false",
+            defaultValue = "false"
+    )
+    private Boolean batch;
+
+    /**
+     * Birden fazla hedefe fan-out isteniyor mu
+     */
+    @JsonIgnore
+    public boolean isFanOut() {
+        return (targetUrls != null && !targetUrls.isEmpty()) || (subscriberSet != null && !subscriberSet.isBlank());
+    }
 }
\ No newline at end of file
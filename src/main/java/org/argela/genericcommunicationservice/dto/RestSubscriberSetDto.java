@@ -0,0 +1,44 @@
+package org.argela.genericcommunicationservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * İsimli webhook abone kümesi DTO'su (fan-out hedefleri).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "İsimli webhook abone kümesi")
+public class RestSubscriberSetDto {
+
+    @Schema(
+            description = "Küme adı - RestSendDto.subscriberSet ile kullanılır",
+            example = "order-events",
+            required = true
+    )
+    @NotBlank(message = "Küme adı boş olamaz")
+    @Pattern(regexp = "^[a-zA-Z0-9][a-zA-Z0-9-_.]*$", message = "Küme adı sadece harf, rakam, nokta, tire ve alt çizgi içerebilir")
+    private String name;
+
+    @Schema(
+            description = "Abone webhook URL'leri",
+            example = "[\"http://localhost:8081/api/webhook\", \"http://localhost:8082/api/webhook\"]",
+            required = true
+    )
+    @NotEmpty(message = "En az bir URL olmalı")
+    private List<String> urls;
+
+    @Schema(
+            description = "Açıklama",
+            example = "Sipariş olayları aboneleri"
+    )
+    private String description;
+}
@@ -82,4 +82,12 @@ public class WebSocketSendDto {
             allowableValues = {"broadcast", "user-specific", "topic"}
     )
     private String messageType;
+
+    @Schema(
+            description = "Frame payload encoding'i. Binary encoding'ler binary frame olarak gider; " +
+                    "CONNECT'te 'payload-encoding' header'ı gönderen client'lar kendi seçtiği encoding'i alır",
+            example = "json",
+            allowableValues = {"json", "cbor", "smile", "msgpack"}
+    )
+    private String encoding;
 }
\ No newline at end of file
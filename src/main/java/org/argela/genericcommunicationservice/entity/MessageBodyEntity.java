@@ -0,0 +1,65 @@
+package org.argela.genericcommunicationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.argela.genericcommunicationservice.enums.BodyCodec;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * İçerik adresli mesaj gövdesi - aynı payload tek satır olarak saklanır.
+ * Anahtar: gövdenin UTF-8 byte'larının SHA-256 hash'i (hex).
+ * Satırlar MessageBodyStore tarafından INSERT ... ON CONFLICT ile yazılır; içerik güncellenmez, sadece
+ * referenced_at yenilenir (sahipsiz gövde temizliğinin grace süresi için).
+ */
+@Entity
+@Immutable
+@BatchSize(size = 50)
+@Table(name = "message_bodies")
+@Getter
+public class MessageBodyEntity {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Getter(AccessLevel.NONE)
+    @Column(columnDefinition = "text")
+    private String body;
+
+    @Column(name = "body_compressed", columnDefinition = "bytea")
+    private byte[] bodyCompressed;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "body_codec", length = 16)
+    private BodyCodec bodyCodec;
+
+    @Column(name = "size_bytes")
+    private Integer sizeBytes;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "referenced_at")
+    private Instant referencedAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private String decodedBody;
+
+    /**
+     * Gövde içeriği. Sıkıştırılmış saklanıyorsa ilk okumada açılır.
+     */
+    public String getBody() {
+        if (body != null) {
+            return body;
+        }
+        if (decodedBody == null && bodyCompressed != null && bodyCodec != null) {
+            decodedBody = bodyCodec.decode(bodyCompressed);
+        }
+        return decodedBody;
+    }
+}
@@ -1,18 +1,29 @@
 package org.argela.genericcommunicationservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.argela.genericcommunicationservice.enums.BodyCodec;
 import org.argela.genericcommunicationservice.enums.ProtocolType;
 import org.argela.genericcommunicationservice.enums.MessageStatus;
+import org.argela.genericcommunicationservice.enums.RelayCacheStatus;
+import org.argela.genericcommunicationservice.enums.RelayFailureReason;
 
 import java.time.Instant;
 import java.util.Map;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+        indexes = {
+                @Index(name = "idx_messages_body_hash", columnList = "body_hash"),
+                @Index(name = "idx_messages_sender", columnList = "sender"),
+                @Index(name = "idx_messages_group_id", columnList = "group_id"),
+                @Index(name = "idx_messages_timestamp", columnList = "timestamp")
+        })
 @Getter
 @Setter
 public class MessageEntity {
@@ -29,9 +40,43 @@ public class MessageEntity {
     @Column(columnDefinition = "jsonb")
     private Map<String, String> headers;
 
+    // Sıkıştırılmamış gövde - sıkıştırıldığında veya depoya taşındığında null olur
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     @Column(columnDefinition = "text")
     private String body;
 
+    // Sıkıştırılmış gövde + codec işareti (MessageBodyCompressor)
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "body_compressed", columnDefinition = "bytea")
+    private byte[] bodyCompressed;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "body_codec", length = 16)
+    private BodyCodec bodyCodec;
+
+    // İçerik adresli gövde referansı (MessageBodyStore) - yazma bodyHash üzerinden yapılır
+    @Setter(AccessLevel.NONE)
+    @Column(name = "body_hash", length = 64)
+    private String bodyHash;
+
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "body_hash", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private MessageBodyEntity bodyRef;
+
+    // Açılmış gövde önbelleği - sadece ilk okumada doldurulur
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String decodedBody;
+
     private String sender;
     private String groupId;
 
@@ -42,4 +87,85 @@ public class MessageEntity {
     private MessageStatus status;
 
     private Instant timestamp = Instant.now();
-}
\ No newline at end of file
+
+    // Relay sonucu (REST) - async gönderimlerde sonradan doldurulur
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    // Yanıtın ilk N KB'ı saklanır; tamamının boyutu ve hash'i ayrıca tutulur
+    @Column(name = "response_body", columnDefinition = "text")
+    private String responseBody;
+
+    @Column(name = "response_size")
+    private Long responseSize;
+
+    @Column(name = "response_hash", length = 64)
+    private String responseHash;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "failure_reason", length = 32)
+    private RelayFailureReason failureReason;
+
+    // GET relay önbellek sonucu (HIT / REVALIDATED / MISS) - önbellek devre dışıysa null
+    @Enumerated(EnumType.STRING)
+    @Column(name = "cache_status", length = 16)
+    private RelayCacheStatus cacheStatus;
+
+    /**
+     * Mesaj gövdesi. Depodaysa referanstan, sıkıştırılmışsa ilk okumada açılarak döner.
+     */
+    public String getBody() {
+        if (body != null) {
+            return body;
+        }
+        if (decodedBody == null) {
+            if (bodyRef != null) {
+                decodedBody = bodyRef.getBody();
+            } else if (bodyCompressed != null && bodyCodec != null) {
+                decodedBody = bodyCodec.decode(bodyCompressed);
+            }
+        }
+        return decodedBody;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+        this.bodyCompressed = null;
+        this.bodyCodec = null;
+        this.bodyHash = null;
+        this.bodyRef = null;
+        this.decodedBody = null;
+    }
+
+    /**
+     * Henüz sıkıştırılmamış (inline) gövde - depolama katmanı için
+     */
+    @JsonIgnore
+    public String getInlineBody() {
+        return body;
+    }
+
+    /**
+     * Gövdeyi sıkıştırılmış haliyle sakla. Açık hali önbellekte tutulur.
+     */
+    public void storeCompressedBody(BodyCodec codec, byte[] compressed) {
+        this.decodedBody = this.body;
+        this.body = null;
+        this.bodyCompressed = compressed;
+        this.bodyCodec = codec;
+    }
+
+    /**
+     * Gövdeyi içerik adresli depoya referansla bağla. Açık hali önbellekte tutulur.
+     */
+    public void storeBodyReference(String hash) {
+        this.decodedBody = this.body;
+        this.body = null;
+        this.bodyCompressed = null;
+        this.bodyCodec = null;
+        this.bodyHash = hash;
+    }
+}
@@ -0,0 +1,81 @@
+package org.argela.genericcommunicationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.argela.genericcommunicationservice.enums.MessageStatus;
+import org.argela.genericcommunicationservice.enums.ProtocolType;
+
+import java.time.Instant;
+
+/**
+ * Dakikalık mesaj rollup'ı - protokol / hedef / status bazında throughput ve latency özetleri.
+ * Hedef: broker key (RabbitMQ), websocket key (WebSocket) veya relay host (REST).
+ * Satırlar MessageRollupService tarafından bellekte biriktirilip upsert ile yazılır.
+ */
+@Entity
+@Table(name = "message_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_message_rollups_bucket",
+                columnNames = {"bucket_start", "protocol", "target", "status"}),
+        indexes = @Index(name = "idx_message_rollups_bucket", columnList = "bucket_start"))
+@Getter
+@Setter
+public class MessageRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ProtocolType protocol;
+
+    @Column(nullable = false)
+    private String target;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MessageStatus status;
+
+    @Column(name = "message_count", nullable = false)
+    private Long messageCount = 0L;
+
+    @Column(name = "latency_sum_ms", nullable = false)
+    private Long latencySumMs = 0L;
+
+    @Column(name = "latency_max_ms", nullable = false)
+    private Long latencyMaxMs = 0L;
+
+    // Latency histogramı (kümülatif olmayan kovalar)
+    @Column(name = "latency_le_10ms", nullable = false)
+    private Long latencyLe10ms = 0L;
+
+    @Column(name = "latency_le_50ms", nullable = false)
+    private Long latencyLe50ms = 0L;
+
+    @Column(name = "latency_le_100ms", nullable = false)
+    private Long latencyLe100ms = 0L;
+
+    @Column(name = "latency_le_250ms", nullable = false)
+    private Long latencyLe250ms = 0L;
+
+    @Column(name = "latency_le_1000ms", nullable = false)
+    private Long latencyLe1000ms = 0L;
+
+    @Column(name = "latency_le_5000ms", nullable = false)
+    private Long latencyLe5000ms = 0L;
+
+    @Column(name = "latency_gt_5000ms", nullable = false)
+    private Long latencyGt5000ms = 0L;
+
+    /**
+     * Ortalama latency (ms) - sadece okuma için
+     */
+    @Transient
+    public double getAvgLatencyMs() {
+        return messageCount != null && messageCount > 0 ? (double) latencySumMs / messageCount : 0.0;
+    }
+}
@@ -0,0 +1,48 @@
+package org.argela.genericcommunicationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.argela.genericcommunicationservice.enums.MessageStatus;
+import org.argela.genericcommunicationservice.enums.RelayFailureReason;
+
+import java.time.Instant;
+
+/**
+ * Fan-out relay'de hedef başına kompakt deneme kaydı.
+ * Gövde mesajda bir kez saklanır; burada sadece hedef ve sonuç tutulur.
+ */
+@Entity
+@Table(name = "relay_attempts",
+        indexes = @Index(name = "idx_relay_attempts_message_id", columnList = "message_id"))
+@Getter
+@Setter
+public class RelayAttemptEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(name = "url", nullable = false, length = 2048)
+    private String url;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MessageStatus status;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "failure_reason", length = 32)
+    private RelayFailureReason failureReason;
+
+    @Column(name = "latency_ms")
+    private Long latencyMs;
+
+    @Column(name = "attempted_at")
+    private Instant attemptedAt;
+}
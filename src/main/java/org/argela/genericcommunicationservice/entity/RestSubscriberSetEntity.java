@@ -0,0 +1,44 @@
+package org.argela.genericcommunicationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * İsimli webhook abone kümesi - RestSendDto.subscriberSet ile tek istekte tüm URL'lere fan-out yapılır.
+ */
+@Entity
+@Table(name = "rest_subscriber_sets")
+@Getter
+@Setter
+public class RestSubscriberSetEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name", unique = true, nullable = false, length = 100)
+    private String name;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "urls", columnDefinition = "jsonb", nullable = false)
+    private List<String> urls;
+
+    @Column(name = "description")
+    private String description;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -0,0 +1,48 @@
+package org.argela.genericcommunicationservice.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+@Schema(description = "Saklanan mesaj gövdesinin sıkıştırma codec'i")
+public enum BodyCodec {
+
+    @Schema(description = "JDK Deflater (zlib) ile sıkıştırılmış UTF-8 gövde")
+    DEFLATE {
+        @Override
+        public byte[] encode(String body, int level) {
+            Deflater deflater = new Deflater(level);
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length() / 4));
+                try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater)) {
+                    deflaterOut.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+                return out.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Gövde sıkıştırılamadı", e);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public String decode(byte[] data) {
+            try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(data))) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Sıkıştırılmış gövde açılamadı", e);
+            }
+        }
+    };
+
+    public abstract byte[] encode(String body, int level);
+
+    public abstract String decode(byte[] data);
+}
@@ -17,6 +17,9 @@ public enum MessageStatus {
     @Schema(description = "Mesaj iletiminde hata oluştu")
     FAILED,
 
+    @Schema(description = "Fan-out gönderimde hedeflerin bir kısmına teslim edildi")
+    PARTIAL,
+
     @Schema(description = "Mesaj yeniden gönderilmeye çalışılıyor")
     RETRYING
 }
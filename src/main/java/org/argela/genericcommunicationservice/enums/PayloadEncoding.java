@@ -0,0 +1,101 @@
+package org.argela.genericcommunicationservice.enums;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@Schema(description = "WebSocket frame payload encoding'i")
+public enum PayloadEncoding {
+
+    @Schema(description = "UTF-8 JSON (text frame)")
+    JSON(new MimeType("application", "json"), new JsonFactory()),
+
+    @Schema(description = "CBOR - RFC 8949 (binary frame)")
+    CBOR(new MimeType("application", "cbor"), new CBORFactory()),
+
+    @Schema(description = "Jackson Smile (binary frame)")
+    SMILE(new MimeType("application", "x-jackson-smile"), new SmileFactory()),
+
+    @Schema(description = "MessagePack (binary frame)")
+    MSGPACK(new MimeType("application", "x-msgpack"), new MessagePackFactory());
+
+    private final MimeType mimeType;
+    private final JsonFactory factory;
+
+    PayloadEncoding(MimeType mimeType, JsonFactory factory) {
+        this.mimeType = mimeType;
+        this.factory = factory;
+    }
+
+    public MimeType getMimeType() {
+        return mimeType;
+    }
+
+    public JsonFactory getFactory() {
+        return factory;
+    }
+
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    /**
+     * Başka bir encoding'de yazılmış payload'u bu encoding'e çevirir (ağaç kurulmadan, token token)
+     */
+    public byte[] transcode(byte[] payload, PayloadEncoding source) {
+        if (source == this) {
+            return payload;
+        }
+        ByteArrayBuilder buffer = new ByteArrayBuilder(payload.length);
+        try (JsonParser parser = source.factory.createParser(payload);
+             JsonGenerator generator = factory.createGenerator(buffer)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Payload " + source + " -> " + this + " çevrilemedi", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * İsimden encoding (json, cbor, smile, msgpack / messagepack - büyük/küçük harf duyarsız)
+     *
+     * @throws IllegalArgumentException bilinmeyen isim
+     */
+    public static PayloadEncoding fromName(String name) {
+        String normalized = name.trim().toUpperCase();
+        if ("MESSAGEPACK".equals(normalized)) {
+            return MSGPACK;
+        }
+        try {
+            return valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Desteklenmeyen payload encoding: " + name + " (json, cbor, smile, msgpack)");
+        }
+    }
+
+    /**
+     * Content-type'tan encoding; tanınmayan veya boş content-type JSON sayılır
+     */
+    public static PayloadEncoding fromContentType(Object contentType) {
+        if (contentType == null) {
+            return JSON;
+        }
+        MimeType mimeType = contentType instanceof MimeType type ? type : MimeType.valueOf(contentType.toString());
+        for (PayloadEncoding encoding : values()) {
+            if (encoding.mimeType.equalsTypeAndSubtype(mimeType)) {
+                return encoding;
+            }
+        }
+        return JSON;
+    }
+}
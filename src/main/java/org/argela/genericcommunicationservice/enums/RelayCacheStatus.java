@@ -0,0 +1,16 @@
+package org.argela.genericcommunicationservice.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "GET relay'inde yanıt önbelleğinin sonucu")
+public enum RelayCacheStatus {
+
+    @Schema(description = "Taze önbellek kaydı döndü, hedefe gidilmedi")
+    HIT,
+
+    @Schema(description = "Bayat kayıt hedefte doğrulandı (304), önbellekten döndü")
+    REVALIDATED,
+
+    @Schema(description = "Önbellekte yoktu, hedeften alındı")
+    MISS
+}
@@ -0,0 +1,41 @@
+package org.argela.genericcommunicationservice.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "HTTP relay hatasının nedeni")
+public enum RelayFailureReason {
+
+    @Schema(description = "İstek geçersiz (URL yok, method hatalı vb.)")
+    INVALID_REQUEST,
+
+    @Schema(description = "Hedefe bağlanılamadı veya zaman aşımı")
+    CONNECTION_ERROR,
+
+    @Schema(description = "Hedef 4xx döndü")
+    CLIENT_ERROR,
+
+    @Schema(description = "Hedef 5xx döndü")
+    SERVER_ERROR,
+
+    @Schema(description = "Hedefin circuit breaker'ı açık - çağrı yapılmadan reddedildi")
+    CIRCUIT_OPEN,
+
+    @Schema(description = "Hedefin eşzamanlı çağrı limiti dolu - çağrı yapılmadan reddedildi")
+    BULKHEAD_FULL,
+
+    @Schema(description = "Hedefin adaptif eşzamanlılık limiti dolu, kuyrukta bekleme süresi aşıldı")
+    LIMIT_EXCEEDED,
+
+    @Schema(description = "Çağıranın deadline'ı doldu - çağrı yapılmadı veya yarıda bırakıldı")
+    DEADLINE_EXCEEDED,
+
+    @Schema(description = "Beklenmeyen hata")
+    UNEXPECTED;
+
+    /**
+     * Hedef host'un sağlığını gösteren hatalar (circuit breaker bunları sayar)
+     */
+    public boolean isTargetFailure() {
+        return this == CONNECTION_ERROR || this == SERVER_ERROR;
+    }
+}
@@ -0,0 +1,29 @@
+package org.argela.genericcommunicationservice.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outbound kuyruğu limiti aşan (yavaş) WebSocket client'ına uygulanan politika")
+public enum SlowConsumerPolicy {
+
+    @Schema(description = "Limit aşılınca kuyruktaki en eski mesajlar atılır")
+    DROP_OLDEST,
+
+    @Schema(description = "Client yavaşken abonelik başına sadece en son mesaj tutulur; limit yine aşılırsa en eskiler atılır")
+    CONFLATE,
+
+    @Schema(description = "Limit aşılınca veya yazım takılınca bağlantı close code + neden ile kapatılır")
+    DISCONNECT;
+
+    /**
+     * İsimden politika (drop-oldest / drop_oldest, conflate, disconnect - büyük/küçük harf duyarsız)
+     *
+     * @throws IllegalArgumentException bilinmeyen isim
+     */
+    public static SlowConsumerPolicy fromName(String name) {
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Desteklenmeyen slow consumer politikası: " + name + " (drop-oldest, conflate, disconnect)");
+        }
+    }
+}
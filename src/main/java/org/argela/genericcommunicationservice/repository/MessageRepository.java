@@ -1,5 +1,6 @@
 package org.argela.genericcommunicationservice.repository;
 
+import jakarta.persistence.QueryHint;
 import org.argela.genericcommunicationservice.entity.MessageEntity;
 import org.argela.genericcommunicationservice.enums.MessageStatus;
 import org.argela.genericcommunicationservice.enums.ProtocolType;
@@ -7,15 +8,34 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
-public interface MessageRepository extends JpaRepository<MessageEntity, Long> {
+public interface MessageRepository extends JpaRepository<MessageEntity, Long>, MessageRepositoryCustom {
 
     // ✅ TEMEL FINDER'LAR (Kalacak)
     Page<MessageEntity> findByProtocol(ProtocolType protocol, Pageable pageable);
 
+    // ✅ EXPORT - server-side cursor (fetch size) ile satır satır okuma, read-only transaction içinde tüketilmeli
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT m FROM MessageEntity m LEFT JOIN FETCH m.bodyRef " +
+            "WHERE m.timestamp >= :from AND m.timestamp < :to " +
+            "AND (:protocol IS NULL OR m.protocol = :protocol) " +
+            "AND (:status IS NULL OR m.status = :status) " +
+            "ORDER BY m.timestamp")
+    Stream<MessageEntity> streamForExport(@Param("from") Instant from,
+                                          @Param("to") Instant to,
+                                          @Param("protocol") ProtocolType protocol,
+                                          @Param("status") MessageStatus status);
+
     // ✅ İSTATİSTİK SORULARI (Kalacak)
     @Query("SELECT m.protocol AS protocol, COUNT(m) AS count FROM MessageEntity m GROUP BY m.protocol")
     List<Map<String, Object>> countMessagesByProtocol();
@@ -0,0 +1,15 @@
+package org.argela.genericcommunicationservice.repository;
+
+import org.argela.genericcommunicationservice.dto.MessageSearchCriteria;
+import org.argela.genericcommunicationservice.entity.MessageEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * MessageRepository için elle yazılmış native sorgular (Spring Data fragment'ı)
+ */
+public interface MessageRepositoryCustom {
+
+    // Header (jsonb @>) + sender/groupId/status/protocol/zaman filtresi
+    Page<MessageEntity> search(MessageSearchCriteria criteria, Pageable pageable);
+}
@@ -0,0 +1,125 @@
+package org.argela.genericcommunicationservice.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.argela.genericcommunicationservice.dto.MessageSearchCriteria;
+import org.argela.genericcommunicationservice.entity.MessageEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Native sorgular.
+ * Arama sorgusu sadece verilen filtrelerle dinamik kurulur; böylece planlayıcı
+ * headers için GIN (jsonb_path_ops), sender/group_id/timestamp için btree index'lerini kullanabilir.
+ */
+@RequiredArgsConstructor
+public class MessageRepositoryCustomImpl implements MessageRepositoryCustom {
+
+    // Sıralamada izin verilen alanlar -> kolon
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "m.id",
+            "timestamp", "m.timestamp",
+            "sender", "m.sender",
+            "groupId", "m.group_id",
+            "status", "m.status",
+            "protocol", "m.protocol"
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<MessageEntity> search(MessageSearchCriteria criteria, Pageable pageable) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = buildWhere(criteria, params);
+
+        Query query = entityManager.createNativeQuery(
+                "SELECT m.* FROM messages m" + where + buildOrderBy(pageable.getSort()), MessageEntity.class);
+        params.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<MessageEntity> content = query.getResultList();
+
+        // İlk sayfa dolmadıysa COUNT sorgusu atlanır
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            Query countQuery = entityManager.createNativeQuery("SELECT COUNT(*) FROM messages m" + where);
+            params.forEach(countQuery::setParameter);
+            return ((Number) countQuery.getSingleResult()).longValue();
+        });
+    }
+
+    private String buildWhere(MessageSearchCriteria criteria, Map<String, Object> params) {
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+
+        Map<String, String> headerFilter = criteria.headerFilter();
+        if (!headerFilter.isEmpty()) {
+            where.add("m.headers @> CAST(:headers AS jsonb)");
+            params.put("headers", toJson(headerFilter));
+        }
+        if (hasText(criteria.getSender())) {
+            where.add("m.sender = :sender");
+            params.put("sender", criteria.getSender());
+        }
+        if (hasText(criteria.getGroupId())) {
+            where.add("m.group_id = :groupId");
+            params.put("groupId", criteria.getGroupId());
+        }
+        if (criteria.getStatus() != null) {
+            where.add("m.status = :status");
+            params.put("status", criteria.getStatus().name());
+        }
+        if (criteria.getProtocol() != null) {
+            where.add("m.protocol = :protocol");
+            params.put("protocol", criteria.getProtocol().name());
+        }
+        if (criteria.getFrom() != null) {
+            where.add("m.timestamp >= :from");
+            params.put("from", criteria.getFrom());
+        }
+        if (criteria.getTo() != null) {
+            where.add("m.timestamp < :to");
+            params.put("to", criteria.getTo());
+        }
+        return where.toString();
+    }
+
+    private String buildOrderBy(Sort sort) {
+        StringJoiner orderBy = new StringJoiner(", ", " ORDER BY ", "");
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Bu alana göre sıralama desteklenmiyor: " + order.getProperty());
+            }
+            orderBy.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return sort.isSorted() ? orderBy.toString() : " ORDER BY m.timestamp DESC";
+    }
+
+    private String toJson(Map<String, String> value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Header filtresi JSON'a çevrilemedi", e);
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
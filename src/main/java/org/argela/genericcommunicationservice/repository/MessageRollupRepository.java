@@ -0,0 +1,27 @@
+package org.argela.genericcommunicationservice.repository;
+
+import org.argela.genericcommunicationservice.entity.MessageRollupEntity;
+import org.argela.genericcommunicationservice.enums.MessageStatus;
+import org.argela.genericcommunicationservice.enums.ProtocolType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MessageRollupRepository extends JpaRepository<MessageRollupEntity, Long> {
+
+    // Zaman aralığı + opsiyonel protokol/hedef/status filtresi
+    @Query("SELECT r FROM MessageRollupEntity r " +
+            "WHERE r.bucketStart >= :from AND r.bucketStart < :to " +
+            "AND (:protocol IS NULL OR r.protocol = :protocol) " +
+            "AND (:target IS NULL OR r.target = :target) " +
+            "AND (:status IS NULL OR r.status = :status) " +
+            "ORDER BY r.bucketStart, r.protocol, r.target, r.status")
+    List<MessageRollupEntity> findInRange(@Param("from") Instant from,
+                                          @Param("to") Instant to,
+                                          @Param("protocol") ProtocolType protocol,
+                                          @Param("target") String target,
+                                          @Param("status") MessageStatus status);
+}
@@ -0,0 +1,12 @@
+package org.argela.genericcommunicationservice.repository;
+
+import org.argela.genericcommunicationservice.entity.RelayAttemptEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RelayAttemptRepository extends JpaRepository<RelayAttemptEntity, Long> {
+
+    // Mesajın hedef bazlı denemeleri
+    List<RelayAttemptEntity> findByMessageIdOrderByIdAsc(Long messageId);
+}
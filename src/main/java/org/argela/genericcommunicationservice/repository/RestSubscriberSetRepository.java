@@ -0,0 +1,16 @@
+package org.argela.genericcommunicationservice.repository;
+
+import org.argela.genericcommunicationservice.entity.RestSubscriberSetEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RestSubscriberSetRepository extends JpaRepository<RestSubscriberSetEntity, Long> {
+
+    // İsim ile abone kümesi bulma
+    Optional<RestSubscriberSetEntity> findByName(String name);
+
+    // Tüm kümeleri isim sırasıyla listeleme
+    List<RestSubscriberSetEntity> findAllByOrderByName();
+}
@@ -0,0 +1,30 @@
+package org.argela.genericcommunicationservice.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * REST relay ve WebSocket gönderiminde ortak JSON gövde kontrolleri.
+ */
+public final class JsonPayloads {
+
+    private JsonPayloads() {
+    }
+
+    /**
+     * Metin tek ve geçerli bir JSON değeri mi. Ağaç kurulmadan token token doğrulanır.
+     */
+    public static boolean isJson(JsonFactory factory, String text) {
+        try (JsonParser parser = factory.createParser(text)) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
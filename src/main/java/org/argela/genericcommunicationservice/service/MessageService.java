@@ -1,14 +1,23 @@
 package org.argela.genericcommunicationservice.service;
 
+import org.argela.genericcommunicationservice.dto.MessageSearchCriteria;
 import org.argela.genericcommunicationservice.dto.RestSendDto;
 import org.argela.genericcommunicationservice.dto.RabbitSendDto;
 import org.argela.genericcommunicationservice.dto.WebSocketSendDto;
 import org.argela.genericcommunicationservice.entity.MessageEntity;
 import org.argela.genericcommunicationservice.enums.MessageStatus;
+import org.argela.genericcommunicationservice.enums.ProtocolType;
+import org.argela.genericcommunicationservice.service.http.HttpRelaySender;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketSender;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Generic Message Service - Basit mesaj yönetimi
@@ -21,14 +30,26 @@ public interface MessageService {
     MessageEntity saveRabbitMessage(RabbitSendDto dto, MessageStatus status);
     MessageEntity saveWebSocketMessage(WebSocketSendDto dto, MessageStatus status);
 
+    // ✅ TOPLU WEBSOCKET KAYDI - gönderim sonuçlarıyla birlikte tek batch insert
+    List<MessageEntity> saveWebSocketMessages(List<WebSocketSendDto> dtos, List<WebSocketSender.WebSocketSendResult> results);
+
     // ✅ ENTITY GÜNCELLEME
     MessageEntity updateMessage(MessageEntity entity);
     MessageEntity updateMessageStatus(Long id, MessageStatus status);
+    MessageEntity completeRestMessage(Long id, MessageStatus status, HttpRelaySender.HttpRelayResult result);
 
     // ✅ TEMEL LİSTELEME
+    Optional<MessageEntity> findMessage(Long id);
     Page<MessageEntity> getAllMessages(Pageable pageable);
     Page<MessageEntity> getMessagesByProtocol(String protocol, Pageable pageable);
 
+    // ✅ ARAMA (header / sender / groupId / status / zaman aralığı)
+    Page<MessageEntity> searchMessages(MessageSearchCriteria criteria, Pageable pageable);
+
+    // ✅ EXPORT (NDJSON, sabit bellek) - yazılan mesaj sayısını döner
+    long exportMessages(ProtocolType protocol, MessageStatus status, Instant from, Instant to,
+                        OutputStream out) throws IOException;
+
     // ✅ İSTATİSTİKLER
     Map<String, Object> getMessageStatistics();
 
@@ -0,0 +1,320 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hedef host başına adaptif eşzamanlılık limiti (gradient + AIMD).
+ * Her başarılı çağrının RTT'si kısa ve uzun pencereli EWMA'ya işlenir; gradient = uzun / kısa RTT.
+ * Gecikme artınca gradient < 1 olur ve limit küçülür, gecikme sabitken limit sqrt(limit) kadar büyür.
+ * Bağlantı hatası / 5xx gibi düşüşlerde limit çarpımsal olarak azaltılır.
+ * Limit doluysa çağrı kısa süre kuyrukta bekler, süre dolarsa veya kuyruk doluysa reddedilir.
+ * Boşta ve target-idle-evict-ms'dir kullanılmayan hedeflerin limiti ve target tag'li metrikleri bırakılır.
+ */
+@Service
+@RequiredArgsConstructor
+public class AdaptiveConcurrencyLimiter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.relay.adaptive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.relay.adaptive.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${app.relay.adaptive.min-limit:1}")
+    private int minLimit;
+
+    @Value("${app.relay.adaptive.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${app.relay.adaptive.queue-timeout-ms:50}")
+    private long queueTimeoutMs;
+
+    @Value("${app.relay.adaptive.max-queue:100}")
+    private int maxQueue;
+
+    @Value("${app.relay.adaptive.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${app.relay.adaptive.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${app.relay.adaptive.short-window:10}")
+    private int shortWindow;
+
+    @Value("${app.relay.adaptive.long-window:600}")
+    private int longWindow;
+
+    @Value("${app.relay.target-idle-evict-ms:600000}")
+    private long targetIdleEvictMs;
+
+    private final Map<String, TargetLimit> targets = new ConcurrentHashMap<>();
+
+    /**
+     * Alınan izin - çağrı bitince release() ile bırakılır (RTT otomatik ölçülür)
+     */
+    public interface Permit {
+        void release(boolean dropped);
+    }
+
+    private static final Permit NOOP = dropped -> { };
+
+    // =============== İZİN ===============
+
+    /**
+     * Hedef için izin ister; limit doluysa queue-timeout-ms kadar bekler.
+     *
+     * @return izin, veya limit aşıldıysa null
+     */
+    public Permit acquire(String target) {
+        if (!enabled || target == null) {
+            return NOOP;
+        }
+        return touch(target).acquire();
+    }
+
+    /**
+     * Host bazında limit, devam eden çağrı ve RTT değerleri (endpoint için)
+     */
+    public List<Map<String, Object>> snapshot() {
+        return targets.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.naturalOrder()))
+                .map(entry -> entry.getValue().toMap(entry.getKey()))
+                .toList();
+    }
+
+    /**
+     * Boşta ve target-idle-evict-ms'dir kullanılmayan hedeflerin limitini ve metriklerini bırakır
+     */
+    @Scheduled(fixedDelayString = "${app.relay.target-idle-evict-ms:600000}")
+    public void evictIdleTargets() {
+        long cutoff = System.currentTimeMillis() - targetIdleEvictMs;
+        for (String target : targets.keySet()) {
+            targets.computeIfPresent(target, (key, limit) -> {
+                if (!limit.isIdleSince(cutoff)) {
+                    return limit;
+                }
+                limit.meters.forEach(meterRegistry::remove);
+                return null;
+            });
+        }
+    }
+
+    // Kullanım zamanı tahliye ile aynı kilit altında işlenir; izin bekleyen/alan hedef tahliye edilmez
+    private TargetLimit touch(String target) {
+        return targets.compute(target, (key, limit) -> {
+            TargetLimit current = limit != null ? limit : createLimit(key);
+            current.lastUsedAt = System.currentTimeMillis();
+            return current;
+        });
+    }
+
+    private TargetLimit createLimit(String target) {
+        TargetLimit limit = new TargetLimit(Counter.builder("relay.adaptive.rejections")
+                .description("Adaptif limit nedeniyle reddedilen relay çağrıları")
+                .tag("target", target)
+                .register(meterRegistry));
+
+        limit.meters.add(limit.rejections);
+        limit.meters.add(Gauge.builder("relay.adaptive.limit", limit, TargetLimit::currentLimit)
+                .description("Hedefin güncel adaptif eşzamanlılık limiti")
+                .tag("target", target)
+                .register(meterRegistry));
+        limit.meters.add(Gauge.builder("relay.adaptive.inflight", limit, TargetLimit::currentInFlight)
+                .description("Hedefe devam eden relay çağrısı sayısı")
+                .tag("target", target)
+                .register(meterRegistry));
+        limit.meters.add(Gauge.builder("relay.adaptive.rtt.short", limit, TargetLimit::currentShortRttMs)
+                .description("Kısa pencereli RTT (ms, EWMA)")
+                .tag("target", target)
+                .baseUnit("milliseconds")
+                .register(meterRegistry));
+        limit.meters.add(Gauge.builder("relay.adaptive.rtt.long", limit, TargetLimit::currentLongRttMs)
+                .description("Uzun pencereli RTT (ms, EWMA) - yük altında olmayan gecikme tahmini")
+                .tag("target", target)
+                .baseUnit("milliseconds")
+                .register(meterRegistry));
+        return limit;
+    }
+
+    // =============== İÇ SINIFLAR ===============
+
+    private final class TargetLimit {
+        // Virtual thread'leri pinlememek için synchronized yerine ReentrantLock
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final Counter rejections;
+        private final List<Meter> meters = new ArrayList<>(5);
+        private volatile long lastUsedAt;
+
+        private double limit = initialLimit;
+        private int inFlight;
+        private int waiting;
+        private double shortRttNanos;
+        private double longRttNanos;
+
+        private TargetLimit(Counter rejections) {
+            this.rejections = rejections;
+        }
+
+        private Permit acquire() {
+            lock.lock();
+            try {
+                if (inFlight >= (int) limit) {
+                    if (waiting >= maxQueue || queueTimeoutMs <= 0) {
+                        rejections.increment();
+                        return null;
+                    }
+                    waiting++;
+                    try {
+                        long remaining = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+                        while (inFlight >= (int) limit) {
+                            if (remaining <= 0) {
+                                rejections.increment();
+                                return null;
+                            }
+                            remaining = released.awaitNanos(remaining);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        rejections.increment();
+                        return null;
+                    } finally {
+                        waiting--;
+                    }
+                }
+                inFlight++;
+                long startNanos = System.nanoTime();
+                int inFlightAtStart = inFlight;
+                return dropped -> release(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+            lock.lock();
+            try {
+                inFlight--;
+                if (dropped) {
+                    // AIMD: düşüşte çarpımsal azalt
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                } else {
+                    update(rttNanos, inFlightAtStart);
+                }
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Gradient: uzun RTT / kısa RTT (0.5..1), yeni limit = limit * gradient + sqrt(limit)
+        private void update(long rttNanos, int inFlightAtStart) {
+            shortRttNanos = ewma(shortRttNanos, rttNanos, shortWindow);
+            longRttNanos = ewma(longRttNanos, rttNanos, longWindow);
+
+            // Uzun pencere yük altında yükselmişse yavaşça geri çek (yeni taban gecikmeye uyum)
+            if (longRttNanos / shortRttNanos > 2.0) {
+                longRttNanos *= 0.95;
+            }
+
+            // Limitin yarısı bile kullanılmıyorsa gecikme limit hakkında bilgi vermez
+            if (inFlightAtStart < limit / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / shortRttNanos));
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+            limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        }
+
+        private double ewma(double current, long sample, int window) {
+            if (current == 0) {
+                return sample;
+            }
+            double alpha = 2.0 / (window + 1);
+            return current + alpha * (sample - current);
+        }
+
+        private boolean isIdleSince(long cutoff) {
+            lock.lock();
+            try {
+                return lastUsedAt < cutoff && inFlight == 0 && waiting == 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private double currentLimit() {
+            lock.lock();
+            try {
+                return limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private double currentInFlight() {
+            lock.lock();
+            try {
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private double currentShortRttMs() {
+            lock.lock();
+            try {
+                return shortRttNanos / 1_000_000.0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private double currentLongRttMs() {
+            lock.lock();
+            try {
+                return longRttNanos / 1_000_000.0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Map<String, Object> toMap(String key) {
+            lock.lock();
+            try {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("target", key);
+                map.put("limit", (int) limit);
+                map.put("inFlight", inFlight);
+                map.put("queued", waiting);
+                map.put("shortRttMs", Math.round(shortRttNanos / 1_000_000.0));
+                map.put("longRttMs", Math.round(longRttNanos / 1_000_000.0));
+                map.put("rejected", (long) rejections.count());
+                return map;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Relay çağrısının deadline'ı varsa DNS çözümlemesini kalan süreyle sınırlar.
+ * InetAddress çözümlemesi timeout almadığından çözümleme ayrı bir virtual thread'de yapılır ve en fazla kalan süre beklenir.
+ */
+public class DeadlineDnsResolver implements DnsResolver {
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("relay-dns-", 0).factory());
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long remaining = RelayDeadline.remainingMillis();
+        if (remaining == Long.MAX_VALUE) {
+            return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+        }
+        if (remaining <= 0) {
+            throw new UnknownHostException(host + ": deadline aşıldı, DNS çözümlemesi yapılmadı");
+        }
+
+        Future<InetAddress[]> lookup = executor.submit(() -> SystemDefaultDnsResolver.INSTANCE.resolve(host));
+        try {
+            return lookup.get(remaining, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            lookup.cancel(true);
+            throw new UnknownHostException(host + ": DNS çözümlemesi deadline içinde bitmedi (" + remaining + "ms)");
+        } catch (InterruptedException e) {
+            lookup.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException(host + ": DNS çözümlemesi kesildi");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnknownHostException unknown) {
+                throw unknown;
+            }
+            UnknownHostException failure = new UnknownHostException(host + ": " + e.getCause());
+            failure.initCause(e.getCause());
+            throw failure;
+        }
+    }
+
+    @Override
+    public String resolveCanonicalHostname(String host) throws UnknownHostException {
+        return SystemDefaultDnsResolver.INSTANCE.resolveCanonicalHostname(host);
+    }
+
+    public void close() {
+        executor.close();
+    }
+}
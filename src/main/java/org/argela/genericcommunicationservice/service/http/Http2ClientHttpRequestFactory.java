@@ -0,0 +1,184 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HttpClient5 async client üzerinden çalışan ClientHttpRequestFactory.
+ * TLS hedeflerde ALPN ile HTTP/2 müzakere edilir; aynı host'a giden istekler tek bağlantı üzerinde multiplex edilir.
+ * RestTemplate akışı değişmeden kalsın diye HttpRelaySender bu factory'yi RelayClientHttpRequestFactory üzerinden kullanır.
+ */
+public class Http2ClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    // HTTP/2'de yasak olan bağlantıya özel header'lar
+    private static final Set<String> CONNECTION_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade", "host", "content-length"
+    );
+
+    private final CloseableHttpAsyncClient client;
+    private final Duration responseTimeout;
+
+    public Http2ClientHttpRequestFactory(CloseableHttpAsyncClient client, Duration responseTimeout) {
+        this.client = client;
+        this.responseTimeout = responseTimeout;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new Http2ClientHttpRequest(uri, httpMethod);
+    }
+
+    /**
+     * Gövde async client'a tek parça verildiği için bellekte toplanır; istek execute() ile bir kez gönderilir.
+     */
+    private final class Http2ClientHttpRequest implements ClientHttpRequest {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+        private boolean executed;
+
+        private Http2ClientHttpRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return executed ? HttpHeaders.readOnlyHttpHeaders(headers) : headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            if (executed) {
+                throw new IllegalStateException("ClientHttpRequest zaten gönderildi");
+            }
+            return body;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            if (executed) {
+                throw new IllegalStateException("ClientHttpRequest zaten gönderildi");
+            }
+            executed = true;
+            byte[] bufferedOutput = body.toByteArray();
+            SimpleRequestBuilder builder = SimpleRequestBuilder.create(method.name()).setUri(uri);
+            headers.forEach((name, values) -> {
+                String lower = name.toLowerCase();
+                if (!CONNECTION_HEADERS.contains(lower) && !lower.equals("content-type")) {
+                    values.forEach(value -> builder.addHeader(name, value));
+                }
+            });
+            if (bufferedOutput.length > 0) {
+                ContentType contentType = headers.getContentType() != null ?
+                        ContentType.parse(headers.getContentType().toString()) : ContentType.APPLICATION_OCTET_STREAM;
+                builder.setBody(bufferedOutput, contentType);
+            }
+
+            SimpleHttpRequest request = builder.build();
+            // Deadline'lı çağrıda kalan bütçeden fazla beklenmez
+            long timeoutMs = Math.max(1, Math.min(responseTimeout.toMillis(), RelayDeadline.remainingMillis()));
+            Future<SimpleHttpResponse> future = client.execute(request, null);
+            try {
+                return new Http2ClientHttpResponse(future.get(timeoutMs, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw new SocketTimeoutException("HTTP/2 yanıt zaman aşımı: " + timeoutMs + "ms");
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("HTTP/2 isteği kesildi");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                throw cause instanceof IOException io ? io : new IOException(cause.getMessage(), cause);
+            }
+        }
+    }
+
+    private static final class Http2ClientHttpResponse implements ClientHttpResponse {
+
+        private final SimpleHttpResponse response;
+        private HttpHeaders headers;
+
+        private Http2ClientHttpResponse(SimpleHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(response.getCode());
+        }
+
+        @Override
+        public String getStatusText() {
+            return response.getReasonPhrase() != null ? response.getReasonPhrase() : "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                headers = new HttpHeaders();
+                for (Header header : response.getHeaders()) {
+                    headers.add(header.getName(), header.getValue());
+                }
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            byte[] body = response.getBodyBytes();
+            return new ByteArrayInputStream(body != null ? body : new byte[0]);
+        }
+
+        @Override
+        public void close() {
+            // Yanıt zaten tamamen okundu - serbest bırakılacak bağlantı yok
+        }
+    }
+}
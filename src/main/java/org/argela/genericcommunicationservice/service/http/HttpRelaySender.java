@@ -2,15 +2,24 @@ package org.argela.genericcommunicationservice.service.http;
 
 import lombok.extern.slf4j.Slf4j;
 import org.argela.genericcommunicationservice.dto.RestSendDto;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.argela.genericcommunicationservice.enums.RelayCacheStatus;
+import org.argela.genericcommunicationservice.enums.RelayFailureReason;
+import org.argela.genericcommunicationservice.service.rollup.MessageRollupService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 
-import java.time.Duration;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
@@ -21,14 +30,34 @@ import java.util.Map;
 @Service
 public class HttpRelaySender {
 
-    private final RestTemplate restTemplate;
+    // Stream yazımında tek seferde encode edilen karakter sayısı
+    private static final int WRITE_CHUNK_CHARS = 8192;
 
-    // Constructor'da RestTemplate'i kendimiz oluşturuyoruz
-    public HttpRelaySender() {
-        this.restTemplate = new RestTemplateBuilder()
-                .connectTimeout(Duration.ofSeconds(30))      // ✅ Yeni API
-                .readTimeout(Duration.ofSeconds(60))         // ✅ Yeni API
-                .build();
+    private final RestTemplate restTemplate;
+    private final RelayTargetGuard relayTargetGuard;
+    private final RelayResponseCache relayResponseCache;
+    private final RelayRequestCoalescer relayRequestCoalescer;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+
+    // Yanıt gövdesinden saklanacak en fazla byte (fazlası sadece boyut + hash olarak tutulur)
+    @Value("${app.relay.http.response.capture-bytes:65536}")
+    private int responseCaptureBytes;
+
+    // Kalan deadline bütçesinin (ms) hedefe iletildiği header
+    @Value("${app.relay.deadline.forward-header:X-Request-Timeout-Ms}")
+    private String deadlineForwardHeader;
+
+    // Pooled (ve opsiyonel HTTP/2) relay client - bkz. RelayHttpClientConfig
+    public HttpRelaySender(@Qualifier("relayRestTemplate") RestTemplate restTemplate,
+                           RelayTargetGuard relayTargetGuard,
+                           RelayResponseCache relayResponseCache,
+                           RelayRequestCoalescer relayRequestCoalescer,
+                           AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
+        this.restTemplate = restTemplate;
+        this.relayTargetGuard = relayTargetGuard;
+        this.relayResponseCache = relayResponseCache;
+        this.relayRequestCoalescer = relayRequestCoalescer;
+        this.adaptiveConcurrencyLimiter = adaptiveConcurrencyLimiter;
     }
 
     /**
@@ -38,71 +67,148 @@ public class HttpRelaySender {
      * @return Gönderim sonucu
      */
     public HttpRelayResult send(RestSendDto dto) {
-        try {
-            // Headers'dan URL'i al
-            String targetUrl = extractUrl(dto.getHeaders());
-            if (targetUrl == null) {
-                return HttpRelayResult.failure(0, "Headers'da 'url' bilgisi bulunamadı", null);
-            }
+        // Headers'dan URL'i al
+        return send(dto, extractUrl(dto.getHeaders()));
+    }
 
-            // Headers'dan HTTP method'u al (default: POST)
-            String method = dto.getHeaders().getOrDefault("method", "POST").toUpperCase();
+    /**
+     * REST mesajını verilen URL'e gönderir (fan-out'ta hedef başına çağrılır).
+     */
+    public HttpRelayResult send(RestSendDto dto, String targetUrl) {
+        if (targetUrl == null || targetUrl.isBlank()) {
+            return HttpRelayResult.failure(RelayFailureReason.INVALID_REQUEST, 0, "Headers'da 'url' bilgisi bulunamadı", null);
+        }
 
-            log.info("HTTP mesajı gönderiliyor: {} -> {}", method, targetUrl);
+        // Deadline'ı geçmiş çağrı hiç yapılmaz - bekleyen kimse yok
+        Long deadline = RelayDeadline.of(dto.getHeaders());
+        if (RelayDeadline.isExpired(deadline)) {
+            log.warn("HTTP çağrısı yapılmadı ({}): {}", RelayFailureReason.DEADLINE_EXCEEDED, targetUrl);
+            return HttpRelayResult.failure(RelayFailureReason.DEADLINE_EXCEEDED, 0,
+                    "Deadline Exceeded: deadline " + (-RelayDeadline.remainingMillis(deadline)) + "ms önce doldu, çağrı yapılmadı", null);
+        }
+        return RelayDeadline.callWithin(deadline, () -> sendWithinDeadline(dto, targetUrl));
+    }
 
-            // HTTP headers hazırla (url ve method'u çıkar, gerisi kalır)
-            HttpHeaders headers = buildHeaders(dto.getHeaders());
+    private HttpRelayResult sendWithinDeadline(RestSendDto dto, String targetUrl) {
+        // Headers'dan HTTP method'u al (default: POST)
+        String method = dto.getHeaders().getOrDefault("method", "POST").toUpperCase();
 
-            // HTTP entity oluştur
-            HttpEntity<String> entity = createHttpEntity(dto.getBody(), method, headers);
+        // HTTP method belirle
+        HttpMethod httpMethod;
+        try {
+            httpMethod = HttpMethod.valueOf(method);
+        } catch (IllegalArgumentException e) {
+            return HttpRelayResult.failure(RelayFailureReason.INVALID_REQUEST, 0, "Geçersiz HTTP method: " + method, null);
+        }
 
-            // HTTP method belirle
-            HttpMethod httpMethod;
-            try {
-                httpMethod = HttpMethod.valueOf(method);
-            } catch (IllegalArgumentException e) {
-                return HttpRelayResult.failure(0, "Geçersiz HTTP method: " + method, null);
+        // HTTP headers hazırla (url ve method'u çıkar, gerisi kalır)
+        HttpHeaders headers = buildHeaders(dto.getHeaders());
+        boolean discard = Boolean.TRUE.equals(dto.getDiscardResponse());
+        String body = createRequestBody(dto.getBody(), httpMethod.name());
+
+        // GET önbelleği: taze kayıt hedefe gitmeden döner
+        String cacheKey = null;
+        RelayResponseCache.Entry cached = null;
+        if (!discard && relayResponseCache.appliesTo(httpMethod.name(), headers)) {
+            cacheKey = relayResponseCache.keyOf(targetUrl, headers);
+            cached = relayResponseCache.lookup(cacheKey);
+            if (relayResponseCache.isServable(cached, headers)) {
+                log.info("HTTP yanıtı önbellekten: {}", targetUrl);
+                return relayResponseCache.hit(cached);
             }
+        }
 
-            // REST çağrısı yap
-            ResponseEntity<String> response = restTemplate.exchange(
-                    targetUrl,
-                    httpMethod,
-                    entity,
-                    String.class
-            );
+        // Özdeş GET'ler tek upstream çağrısını paylaşır
+        String finalCacheKey = cacheKey;
+        RelayResponseCache.Entry stale = cached;
+        if (!discard && relayRequestCoalescer.appliesTo(httpMethod.name())) {
+            String coalesceKey = relayRequestCoalescer.keyOf(httpMethod.name(), targetUrl, headers);
+            return relayRequestCoalescer.execute(coalesceKey,
+                    () -> callUpstream(targetUrl, httpMethod, headers, body, discard, finalCacheKey, stale));
+        }
+        return callUpstream(targetUrl, httpMethod, headers, body, discard, finalCacheKey, stale);
+    }
 
-            log.info("HTTP çağrısı başarılı: {} - {}", response.getStatusCode(), targetUrl);
+    /**
+     * Hedef izolasyonu altında gerçek HTTP çağrısı. Bayat önbellek kaydı varsa koşullu istek yapılır.
+     */
+    private HttpRelayResult callUpstream(String targetUrl, HttpMethod httpMethod, HttpHeaders headers, String body,
+                                         boolean discard, String cacheKey, RelayResponseCache.Entry stale) {
+        if (stale != null) {
+            relayResponseCache.addValidators(headers, stale);
+        }
 
-            return HttpRelayResult.success(
-                    response.getStatusCode().value(),
-                    response.getBody()
-            );
+        // Hedef host izolasyonu: açık breaker veya dolu bulkhead çağrı yapılmadan reddedilir
+        String target = MessageRollupService.targetOfUrl(targetUrl);
+        RelayFailureReason rejection = relayTargetGuard.tryAcquire(target);
+        if (rejection != null) {
+            log.warn("HTTP çağrısı reddedildi ({}): {}", rejection, targetUrl);
+            return HttpRelayResult.failure(rejection, 0, rejection + ": " + target + " için çağrı yapılmadı", null);
+        }
 
-        } catch (HttpClientErrorException e) {
-            log.error("HTTP çağrısı 4xx hatası: {} -> {}",
-                    e.getStatusCode(), e.getResponseBodyAsString());
+        AdaptiveConcurrencyLimiter.Permit permit = null;
+        HttpRelayResult result = null;
+        try {
+            // Adaptif limit: gecikme artan hedefe giden eşzamanlı çağrı sayısı kendiliğinden düşer
+            permit = adaptiveConcurrencyLimiter.acquire(target);
+            if (permit == null) {
+                log.warn("HTTP çağrısı reddedildi ({}): {}", RelayFailureReason.LIMIT_EXCEEDED, targetUrl);
+                return HttpRelayResult.failure(RelayFailureReason.LIMIT_EXCEEDED, 0,
+                        RelayFailureReason.LIMIT_EXCEEDED + ": " + target + " için çağrı yapılmadı", null);
+            }
+            result = exchange(targetUrl, httpMethod, headers, body, discard);
+        } finally {
+            if (permit == null) {
+                // Hedefe gidilmedi - bulkhead/probe hakkı breaker'a sonuç bildirilmeden geri verilir
+                relayTargetGuard.abandon(target);
+            } else {
+                boolean targetFailure = result != null && result.getFailureReason() != null
+                        && result.getFailureReason().isTargetFailure();
+                permit.release(targetFailure);
+                relayTargetGuard.release(target, targetFailure);
+            }
+        }
+        return cacheKey != null ? relayResponseCache.onResponse(cacheKey, stale, result) : result;
+    }
 
-            return HttpRelayResult.failure(
-                    e.getStatusCode().value(),
-                    "Client Error: " + e.getMessage(),
-                    e.getResponseBodyAsString()
+    private HttpRelayResult exchange(String targetUrl, HttpMethod httpMethod, HttpHeaders headers,
+                                     String body, boolean discard) {
+        try {
+            log.info("HTTP mesajı gönderiliyor: {} -> {}", httpMethod, targetUrl);
+
+            // REST çağrısı yap - gövde stream edilir, yanıt limitli okunur (4xx/5xx exception'a çevrilmez)
+            ResponseCapture.Captured response = restTemplate.execute(
+                    targetUrl,
+                    httpMethod,
+                    request -> writeRequest(request, headers, body),
+                    clientResponse -> ResponseCapture.read(clientResponse, responseCaptureBytes, discard)
             );
 
-        } catch (HttpServerErrorException e) {
-            log.error("HTTP çağrısı 5xx hatası: {} -> {}",
-                    e.getStatusCode(), e.getResponseBodyAsString());
+            int statusCode = response.statusCode();
+            if (statusCode >= 500) {
+                log.error("HTTP çağrısı 5xx hatası: {} -> {} ({} byte)", statusCode, targetUrl, response.totalBytes());
+                return HttpRelayResult.failure(RelayFailureReason.SERVER_ERROR,
+                        "Server Error: " + statusCode + " " + response.statusText(), response);
+            }
+            if (statusCode >= 400) {
+                log.error("HTTP çağrısı 4xx hatası: {} -> {} ({} byte)", statusCode, targetUrl, response.totalBytes());
+                return HttpRelayResult.failure(RelayFailureReason.CLIENT_ERROR,
+                        "Client Error: " + statusCode + " " + response.statusText(), response);
+            }
 
-            return HttpRelayResult.failure(
-                    e.getStatusCode().value(),
-                    "Server Error: " + e.getMessage(),
-                    e.getResponseBodyAsString()
-            );
+            log.info("HTTP çağrısı başarılı: {} - {}", statusCode, targetUrl);
+            return HttpRelayResult.success(response);
 
         } catch (ResourceAccessException e) {
+            if (RelayDeadline.remainingMillis() <= 0) {
+                log.warn("HTTP çağrısı deadline'da kesildi: {} -> {}", targetUrl, e.getMessage());
+                return HttpRelayResult.failure(RelayFailureReason.DEADLINE_EXCEEDED, 0,
+                        "Deadline Exceeded: " + e.getMessage(), null);
+            }
             log.error("HTTP çağrısı bağlantı hatası: {}", e.getMessage());
 
             return HttpRelayResult.failure(
+                    RelayFailureReason.CONNECTION_ERROR,
                     0,
                     "Connection Error: " + e.getMessage(),
                     null
@@ -112,6 +218,7 @@ public class HttpRelaySender {
             log.error("HTTP çağrısı genel hata: {}", e.getMessage(), e);
 
             return HttpRelayResult.failure(
+                    RelayFailureReason.UNEXPECTED,
                     0,
                     "Unexpected Error: " + e.getMessage(),
                     null
@@ -119,6 +226,25 @@ public class HttpRelaySender {
         }
     }
 
+    /**
+     * Async relay tamamlandığında sonucu callback URL'ine JSON olarak POST eder.
+     * Callback hatası mesajın durumunu etkilemez, sadece loglanır.
+     */
+    public void sendCallback(String callbackUrl, Map<String, Object> payload) {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            ResponseEntity<Void> response = restTemplate.postForEntity(callbackUrl, new HttpEntity<>(payload, headers), Void.class);
+            if (response.getStatusCode().isError()) {
+                log.warn("Callback hata döndü: {} -> {}", callbackUrl, response.getStatusCode());
+            } else {
+                log.debug("Callback gönderildi: {}", callbackUrl);
+            }
+        } catch (Exception e) {
+            log.warn("Callback gönderilemedi: {} -> {}", callbackUrl, e.getMessage());
+        }
+    }
+
     /**
      * Headers'dan URL'i extract et.
      * Önce 'url', sonra 'target-url', sonra 'endpoint' key'lerini dener.
@@ -173,24 +299,83 @@ public class HttpRelaySender {
                 key.equalsIgnoreCase("target") ||
                 key.equalsIgnoreCase("destination") ||
                 key.equalsIgnoreCase("method") ||
+                key.equalsIgnoreCase(RelayDeadline.DEADLINE_KEY) ||
+                key.equalsIgnoreCase(RelayDeadline.TIMEOUT_KEY) ||
                 key.equalsIgnoreCase("sender") ||
                 key.equalsIgnoreCase("group-id") ||
                 key.equalsIgnoreCase("groupId");
     }
 
     /**
-     * HTTP method'a göre entity oluştur.
+     * HTTP method'a göre gönderilecek gövde.
      * GET isteklerinde body gönderilmez.
      */
-    private HttpEntity<String> createHttpEntity(String body, String method, HttpHeaders headers) {
+    private String createRequestBody(String body, String method) {
         // GET isteklerinde body göndermiyoruz
         if ("GET".equalsIgnoreCase(method)) {
-            return new HttpEntity<>(headers);
+            return null;
         }
 
         // Diğer method'larda body gönderebiliriz
-        String requestBody = body != null ? body : "";
-        return new HttpEntity<>(requestBody, headers);
+        return body != null ? body : "";
+    }
+
+    /**
+     * Header'ları yazar ve gövdeyi parça parça stream eder (tüm gövde için ayrı byte[] kopyası oluşturulmaz).
+     * Content-Length önceden hesaplanır, böylece hedef chunked encoding görmez.
+     */
+    private void writeRequest(ClientHttpRequest request, HttpHeaders headers, String body) throws IOException {
+        request.getHeaders().putAll(headers);
+        long remaining = RelayDeadline.remainingMillis();
+        if (remaining != Long.MAX_VALUE) {
+            request.getHeaders().set(deadlineForwardHeader, String.valueOf(Math.max(0, remaining)));
+        }
+        if (body == null) {
+            return;
+        }
+
+        MediaType contentType = headers.getContentType();
+        Charset charset = contentType != null && contentType.getCharset() != null ?
+                contentType.getCharset() : StandardCharsets.UTF_8;
+        if (request.getHeaders().getContentLength() < 0) {
+            request.getHeaders().setContentLength(encodedLength(body, charset));
+        }
+
+        if (request instanceof StreamingHttpOutputMessage streaming) {
+            streaming.setBody(out -> writeChunks(body, charset, out));
+        } else {
+            writeChunks(body, charset, request.getBody());
+        }
+    }
+
+    private static void writeChunks(String body, Charset charset, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(StreamUtils.nonClosing(out), charset);
+        for (int offset = 0; offset < body.length(); offset += WRITE_CHUNK_CHARS) {
+            writer.write(body, offset, Math.min(WRITE_CHUNK_CHARS, body.length() - offset));
+        }
+        writer.flush();
+    }
+
+    // UTF-8 byte uzunluğu kopyasız hesaplanır; diğer charset'ler nadir, encode edilerek ölçülür
+    static long encodedLength(String body, Charset charset) {
+        if (!StandardCharsets.UTF_8.equals(charset)) {
+            return body.getBytes(charset).length;
+        }
+        long length = 0;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < body.length() && Character.isLowSurrogate(body.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
     }
 
     /**
@@ -200,28 +385,79 @@ public class HttpRelaySender {
         private final boolean success;
         private final int statusCode;
         private final String responseBody;
+        private final Long responseSize;
+        private final String responseHash;
+        private final boolean responseTruncated;
+        private final HttpHeaders responseHeaders;
         private final String errorMessage;
+        private final RelayFailureReason failureReason;
+        private final RelayCacheStatus cacheStatus;
 
-        private HttpRelayResult(boolean success, int statusCode, String responseBody, String errorMessage) {
+        private HttpRelayResult(boolean success, int statusCode, String responseBody, Long responseSize,
+                                String responseHash, boolean responseTruncated, HttpHeaders responseHeaders,
+                                String errorMessage, RelayFailureReason failureReason, RelayCacheStatus cacheStatus) {
             this.success = success;
             this.statusCode = statusCode;
             this.responseBody = responseBody;
+            this.responseSize = responseSize;
+            this.responseHash = responseHash;
+            this.responseTruncated = responseTruncated;
+            this.responseHeaders = responseHeaders;
             this.errorMessage = errorMessage;
+            this.failureReason = failureReason;
+            this.cacheStatus = cacheStatus;
+        }
+
+        public static HttpRelayResult success(ResponseCapture.Captured response) {
+            return new HttpRelayResult(true, response.statusCode(), response.body(), response.totalBytes(),
+                    response.sha256(), response.truncated(), response.headers(), null, null, null);
+        }
+
+        public static HttpRelayResult failure(RelayFailureReason reason, String errorMessage,
+                                              ResponseCapture.Captured response) {
+            return new HttpRelayResult(false, response.statusCode(), response.body(), response.totalBytes(),
+                    response.sha256(), response.truncated(), response.headers(), errorMessage, reason, null);
+        }
+
+        public static HttpRelayResult failure(RelayFailureReason reason, int statusCode, String errorMessage,
+                                              String responseBody) {
+            return new HttpRelayResult(false, statusCode, responseBody, null, null, false, null, errorMessage, reason, null);
+        }
+
+        /**
+         * Batch yanıtından çıkarılan mesaj sonucu - status'e göre başarılı/başarısız
+         */
+        public static HttpRelayResult batchItem(int statusCode, String responseBody) {
+            if (statusCode >= 500) {
+                return failure(RelayFailureReason.SERVER_ERROR, statusCode, "Batch item error: " + statusCode, responseBody);
+            }
+            if (statusCode >= 400) {
+                return failure(RelayFailureReason.CLIENT_ERROR, statusCode, "Batch item error: " + statusCode, responseBody);
+            }
+            return new HttpRelayResult(true, statusCode, responseBody, null, null, false, null, null, null, null);
         }
 
-        public static HttpRelayResult success(int statusCode, String responseBody) {
-            return new HttpRelayResult(true, statusCode, responseBody, null);
+        public static HttpRelayResult fromCache(RelayResponseCache.Entry entry, RelayCacheStatus cacheStatus) {
+            return new HttpRelayResult(true, entry.statusCode(), entry.body(), entry.size(), entry.hash(),
+                    false, null, null, null, cacheStatus);
         }
 
-        public static HttpRelayResult failure(int statusCode, String errorMessage, String responseBody) {
-            return new HttpRelayResult(false, statusCode, responseBody, errorMessage);
+        public HttpRelayResult withCacheStatus(RelayCacheStatus status) {
+            return new HttpRelayResult(success, statusCode, responseBody, responseSize, responseHash,
+                    responseTruncated, responseHeaders, errorMessage, failureReason, status);
         }
 
         // Getters
         public boolean isSuccess() { return success; }
         public int getStatusCode() { return statusCode; }
         public String getResponseBody() { return responseBody; }
+        public Long getResponseSize() { return responseSize; }
+        public String getResponseHash() { return responseHash; }
+        public boolean isResponseTruncated() { return responseTruncated; }
+        public HttpHeaders getResponseHeaders() { return responseHeaders; }
         public String getErrorMessage() { return errorMessage; }
+        public RelayFailureReason getFailureReason() { return failureReason; }
+        public RelayCacheStatus getCacheStatus() { return cacheStatus; }
 
         /**
          * HTTP status code'a göre mesajın durumunu belirle
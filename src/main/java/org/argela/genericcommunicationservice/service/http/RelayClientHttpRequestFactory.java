@@ -0,0 +1,41 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * Relay istekleri için yönlendiren factory.
+ * HTTP/2 destekli olarak işaretlenen host'lar ("*" = hepsi) async HTTP/2 client'a,
+ * diğerleri pooled HTTP/1.1 client'a gider.
+ */
+public class RelayClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory http1Factory;
+    private final ClientHttpRequestFactory http2Factory;
+    private final Set<String> http2Hosts;
+
+    public RelayClientHttpRequestFactory(ClientHttpRequestFactory http1Factory,
+                                         ClientHttpRequestFactory http2Factory,
+                                         Set<String> http2Hosts) {
+        this.http1Factory = http1Factory;
+        this.http2Factory = http2Factory;
+        this.http2Hosts = http2Hosts;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return useHttp2(uri) ? http2Factory.createRequest(uri, httpMethod) : http1Factory.createRequest(uri, httpMethod);
+    }
+
+    private boolean useHttp2(URI uri) {
+        if (http2Factory == null || http2Hosts.isEmpty()) {
+            return false;
+        }
+        return http2Hosts.contains("*") || (uri.getHost() != null && http2Hosts.contains(uri.getHost().toLowerCase()));
+    }
+}
@@ -0,0 +1,129 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import org.argela.genericcommunicationservice.dto.RestSendDto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Relay çağrısı için zaman bütçesi.
+ * Çağıran headers'da 'timeout-ms' (göreli) veya 'deadline-ms' (epoch ms, mutlak) verebilir; göreli süre mesaj
+ * kabul edildiği anda mutlak deadline'a çevrilir, böylece async kuyrukta geçen süre de bütçeden düşer.
+ * Çağrı sırasında deadline thread'e bağlanır: pool lease, DNS, connect ve read süreleri kalan bütçeyle sınırlanır.
+ */
+public final class RelayDeadline {
+
+    public static final String DEADLINE_KEY = "deadline-ms";
+    public static final String TIMEOUT_KEY = "timeout-ms";
+
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private RelayDeadline() {
+    }
+
+    /**
+     * 'timeout-ms' varsa mutlak 'deadline-ms'e çevirir (headers kopyalanır, çağıranın map'i değişmez).
+     *
+     * @throws IllegalArgumentException değerler sayı değilse veya timeout pozitif değilse
+     */
+    public static void pin(RestSendDto dto) {
+        Map<String, String> headers = dto.getHeaders();
+        if (headers == null) {
+            return;
+        }
+        String timeout = valueOf(headers, TIMEOUT_KEY);
+        String deadline = valueOf(headers, DEADLINE_KEY);
+        if (timeout == null && deadline == null) {
+            return;
+        }
+
+        long resolved = deadline != null ? parse(DEADLINE_KEY, deadline) : Long.MAX_VALUE;
+        if (timeout != null) {
+            long timeoutMs = parse(TIMEOUT_KEY, timeout);
+            if (timeoutMs <= 0) {
+                throw new IllegalArgumentException(TIMEOUT_KEY + " pozitif olmalı: " + timeout);
+            }
+            resolved = Math.min(resolved, System.currentTimeMillis() + timeoutMs);
+        }
+
+        Map<String, String> pinned = new LinkedHashMap<>();
+        headers.forEach((key, value) -> {
+            if (!key.equalsIgnoreCase(TIMEOUT_KEY) && !key.equalsIgnoreCase(DEADLINE_KEY)) {
+                pinned.put(key, value);
+            }
+        });
+        pinned.put(DEADLINE_KEY, String.valueOf(resolved));
+        dto.setHeaders(pinned);
+    }
+
+    /**
+     * Headers'daki mutlak deadline (epoch ms), yoksa null
+     */
+    public static Long of(Map<String, String> headers) {
+        String value = headers != null ? valueOf(headers, DEADLINE_KEY) : null;
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static boolean isExpired(Long deadline) {
+        return deadline != null && deadline <= System.currentTimeMillis();
+    }
+
+    /**
+     * Deadline'a kalan süre; deadline yoksa Long.MAX_VALUE
+     */
+    public static long remainingMillis(Long deadline) {
+        return deadline != null ? deadline - System.currentTimeMillis() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Bu thread'de devam eden relay çağrısının kalan süresi; deadline yoksa Long.MAX_VALUE
+     */
+    public static long remainingMillis() {
+        return remainingMillis(CURRENT.get());
+    }
+
+    /**
+     * Çağrıyı deadline bu thread'e bağlı olarak çalıştırır
+     */
+    static <T> T callWithin(Long deadline, Supplier<T> call) {
+        if (deadline == null) {
+            return call.get();
+        }
+        Long previous = CURRENT.get();
+        CURRENT.set(deadline);
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    private static String valueOf(Map<String, String> headers, String key) {
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(key) && entry.getValue() != null && !entry.getValue().isBlank()) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static long parse(String key, String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " sayı olmalı: " + value);
+        }
+    }
+}
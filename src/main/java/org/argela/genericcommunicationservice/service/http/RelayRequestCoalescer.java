@@ -0,0 +1,141 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.enums.RelayFailureReason;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Aynı anda devam eden özdeş GET relay'leri için single-flight birleştirme.
+ * Anahtar: method + URL + seçili header'lar. İlk çağıran (leader) hedefe gider, aynı anahtarla
+ * gelen diğerleri (follower) onun sonucunu paylaşır. Her çağıranın mesaj kaydı ayrı tutulur.
+ * Follower en fazla kendi deadline'ı kadar bekler (dolarsa DEADLINE_EXCEEDED). Leader'ın kendi deadline'ı
+ * yüzünden aldığı DEADLINE_EXCEEDED paylaşılmaz; süresi kalan follower çağrıyı yeniden (leader olarak) dener.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelayRequestCoalescer {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.relay.coalesce.enabled:false}")
+    private boolean enabled;
+
+    // Yanıtı etkileyebilecek header'lar anahtara dahil edilir
+    @Value("${app.relay.coalesce.key-headers:accept,accept-language,accept-encoding,authorization,cookie}")
+    private String keyHeaders;
+
+    private final Map<String, CompletableFuture<HttpRelaySender.HttpRelayResult>> inFlight = new ConcurrentHashMap<>();
+
+    private List<String> keyHeaderNames;
+    private Counter leaders;
+    private Counter followers;
+
+    @PostConstruct
+    public void init() {
+        keyHeaderNames = Arrays.stream(keyHeaders.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .sorted()
+                .toList();
+        leaders = Counter.builder("relay.coalesce.requests")
+                .description("Single-flight GET relay çağrıları (leader: hedefe giden, follower: sonucu paylaşan)")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        followers = Counter.builder("relay.coalesce.requests")
+                .description("Single-flight GET relay çağrıları (leader: hedefe giden, follower: sonucu paylaşan)")
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("relay.coalesce.inflight", inFlight, Map::size)
+                .description("Devam eden birleştirilmiş GET relay anahtarı sayısı")
+                .register(meterRegistry);
+    }
+
+    public boolean appliesTo(String method) {
+        return enabled && "GET".equals(method);
+    }
+
+    public String keyOf(String method, String url, HttpHeaders requestHeaders) {
+        StringBuilder key = new StringBuilder(method).append(' ').append(url);
+        for (String name : keyHeaderNames) {
+            List<String> values = requestHeaders.get(name);
+            if (values != null) {
+                key.append('|').append(name).append('=').append(values);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Anahtar için devam eden çağrı varsa sonucunu (bu thread'in deadline'ı kadar) bekler,
+     * yoksa çağrıyı yapar ve sonucu paylaşır.
+     */
+    public HttpRelaySender.HttpRelayResult execute(String key, Supplier<HttpRelaySender.HttpRelayResult> call) {
+        while (true) {
+            CompletableFuture<HttpRelaySender.HttpRelayResult> mine = new CompletableFuture<>();
+            CompletableFuture<HttpRelaySender.HttpRelayResult> existing = inFlight.putIfAbsent(key, mine);
+            if (existing == null) {
+                return lead(key, mine, call);
+            }
+
+            followers.increment();
+            log.debug("GET relay birleştirildi: {}", key);
+            HttpRelaySender.HttpRelayResult shared = await(existing);
+            // Leader'ın deadline'ı doldu ama bu çağıranın süresi var - sonucu paylaşma, yeniden dene
+            if (shared.getFailureReason() == RelayFailureReason.DEADLINE_EXCEEDED && RelayDeadline.remainingMillis() > 0) {
+                log.debug("Leader deadline'ı doldu, GET relay yeniden deneniyor: {}", key);
+                continue;
+            }
+            return shared;
+        }
+    }
+
+    private HttpRelaySender.HttpRelayResult await(CompletableFuture<HttpRelaySender.HttpRelayResult> existing) {
+        long remaining = RelayDeadline.remainingMillis();
+        try {
+            return remaining == Long.MAX_VALUE ? existing.get() : existing.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return HttpRelaySender.HttpRelayResult.failure(RelayFailureReason.DEADLINE_EXCEEDED, 0,
+                    "Deadline Exceeded: birleştirilmiş GET relay'in sonucu beklenirken doldu", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Birleştirilmiş GET relay beklenirken kesildi", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private HttpRelaySender.HttpRelayResult lead(String key, CompletableFuture<HttpRelaySender.HttpRelayResult> mine,
+                                                 Supplier<HttpRelaySender.HttpRelayResult> call) {
+        leaders.increment();
+        try {
+            HttpRelaySender.HttpRelayResult result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.enums.RelayCacheStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * GET relay'leri için HTTP semantiğine uygun, boyut ve TTL sınırlı yanıt önbelleği.
+ * Cache-Control max-age / s-maxage / no-store / no-cache / private ve Expires dikkate alınır;
+ * bayat kayıtlar ETag / Last-Modified varsa If-None-Match / If-Modified-Since ile hedefte doğrulanır.
+ * Anahtar: URL + key-headers'taki request header'ları (farklı Authorization vb. aynı kaydı paylaşmaz); trace/request id
+ * gibi istek başına değişen header'lar anahtara girmez. Yanıtın Vary'si bu kümenin dışında bir header'a (veya *)
+ * bağlıysa yanıt önbelleğe alınmaz.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelayResponseCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.relay.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.relay.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${app.relay.cache.max-entry-bytes:262144}")
+    private long maxEntryBytes;
+
+    @Value("${app.relay.cache.max-ttl-ms:3600000}")
+    private long maxTtlMs;
+
+    // Anahtara giren request header'ları (yanıtı değiştirebilecekler)
+    @Value("${app.relay.cache.key-headers:accept,accept-language,accept-encoding,authorization,cookie}")
+    private String keyHeaders;
+
+    private List<String> keyHeaderNames;
+
+    // Erişim sıralı LRU - tüm erişimler this üzerinde senkronize
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private Counter hits;
+    private Counter revalidations;
+    private Counter misses;
+
+    @PostConstruct
+    public void registerMetrics() {
+        keyHeaderNames = Arrays.stream(keyHeaders.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .sorted()
+                .toList();
+        hits = requestCounter(RelayCacheStatus.HIT);
+        revalidations = requestCounter(RelayCacheStatus.REVALIDATED);
+        misses = requestCounter(RelayCacheStatus.MISS);
+        Gauge.builder("relay.cache.hit.ratio", this, RelayResponseCache::hitRatio)
+                .description("Önbellekten karşılanan GET relay oranı (HIT + REVALIDATED)")
+                .register(meterRegistry);
+        Gauge.builder("relay.cache.size", this, RelayResponseCache::size)
+                .description("Önbellekteki kayıt sayısı")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Önbellekte saklanan yanıt
+     */
+    public record Entry(int statusCode, String body, Long size, String hash,
+                        String etag, String lastModified, long expiresAtMillis) {
+
+        boolean isFresh(long now) {
+            return now < expiresAtMillis;
+        }
+
+        boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+    }
+
+    // =============== AKIŞ ===============
+
+    /**
+     * Bu istek önbellekten karşılanabilir mi (GET, açık, istek no-store değil)
+     */
+    public boolean appliesTo(String method, HttpHeaders requestHeaders) {
+        return enabled && "GET".equals(method) && !hasDirective(requestHeaders, "no-store");
+    }
+
+    public String keyOf(String url, HttpHeaders requestHeaders) {
+        StringBuilder key = new StringBuilder(url);
+        for (String name : keyHeaderNames) {
+            List<String> values = requestHeaders.get(name);
+            if (values != null) {
+                key.append('|').append(name).append('=').append(values);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Kaydı (taze veya doğrulanabilir bayat) döner; işe yaramaz bayat kayıt silinir.
+     */
+    public synchronized Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isFresh(System.currentTimeMillis()) && !entry.hasValidators()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Kayıt hedefe gitmeden döndürülebilir mi (taze ve istek no-cache değil)
+     */
+    public boolean isServable(Entry entry, HttpHeaders requestHeaders) {
+        return entry != null && entry.isFresh(System.currentTimeMillis()) && !hasDirective(requestHeaders, "no-cache");
+    }
+
+    /**
+     * Bayat kaydın doğrulayıcılarını koşullu istek header'ı olarak ekler
+     */
+    public void addValidators(HttpHeaders requestHeaders, Entry entry) {
+        if (entry.etag() != null) {
+            requestHeaders.set(HttpHeaders.IF_NONE_MATCH, entry.etag());
+        }
+        if (entry.lastModified() != null) {
+            requestHeaders.set(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified());
+        }
+    }
+
+    public HttpRelaySender.HttpRelayResult hit(Entry entry) {
+        hits.increment();
+        return HttpRelaySender.HttpRelayResult.fromCache(entry, RelayCacheStatus.HIT);
+    }
+
+    /**
+     * Hedeften gelen yanıtı işler: 304 ise kaydı tazeleyip önbellekten döner,
+     * önbelleğe alınabilir 200 ise saklar; sonucu cache durumuyla işaretler.
+     */
+    public HttpRelaySender.HttpRelayResult onResponse(String key, Entry stale, HttpRelaySender.HttpRelayResult result) {
+        HttpHeaders responseHeaders = result.getResponseHeaders();
+
+        if (stale != null && result.getStatusCode() == 304 && responseHeaders != null) {
+            // Tazelik okunamıyorsa kayıt yine döner ama bir sonraki istekte tekrar doğrulanır
+            Entry refreshed = new Entry(stale.statusCode(), stale.body(), stale.size(), stale.hash(),
+                    firstNonNull(responseHeaders.getETag(), stale.etag()),
+                    firstNonNull(responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED), stale.lastModified()),
+                    System.currentTimeMillis() + Math.max(0, freshnessMillis(responseHeaders)));
+            put(key, refreshed);
+            revalidations.increment();
+            return HttpRelaySender.HttpRelayResult.fromCache(refreshed, RelayCacheStatus.REVALIDATED);
+        }
+
+        misses.increment();
+        if (result.getStatusCode() == 200 && result.isSuccess() && responseHeaders != null) {
+            store(key, result, responseHeaders);
+        } else if (stale != null) {
+            remove(key);
+        }
+        return result.withCacheStatus(RelayCacheStatus.MISS);
+    }
+
+    // =============== YÖNETİM ===============
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", (long) hits.count());
+        stats.put("revalidations", (long) revalidations.count());
+        stats.put("misses", (long) misses.count());
+        stats.put("hitRatio", hitRatio());
+        return stats;
+    }
+
+    /**
+     * TTL temizliği: doğrulayıcısı olmayan bayat kayıtlar ve max-ttl'den uzun süredir bayat olanlar silinir
+     */
+    @Scheduled(fixedDelayString = "${app.relay.cache.purge-interval-ms:60000}")
+    public synchronized void purgeExpired() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> !entry.isFresh(now) && (!entry.hasValidators() || now - entry.expiresAtMillis() > maxTtlMs));
+    }
+
+    public synchronized int clear() {
+        int size = entries.size();
+        entries.clear();
+        log.info("🧹 Relay yanıt önbelleği temizlendi: {} kayıt", size);
+        return size;
+    }
+
+    // =============== YARDIMCI ===============
+
+    private void store(String key, HttpRelaySender.HttpRelayResult result, HttpHeaders responseHeaders) {
+        if (hasDirective(responseHeaders, "no-store") || hasDirective(responseHeaders, "private")
+                || !variesOnlyByKeyHeaders(responseHeaders)) {
+            return;
+        }
+        // Kesilmiş veya çok büyük gövde önbelleğe alınmaz
+        Long size = result.getResponseSize();
+        if (result.isResponseTruncated() || (size != null && size > maxEntryBytes)) {
+            return;
+        }
+
+        long freshness = freshnessMillis(responseHeaders);
+        if (freshness < 0) {
+            return;
+        }
+        String etag = responseHeaders.getETag();
+        String lastModified = responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED);
+        if (freshness == 0 && etag == null && lastModified == null) {
+            return;
+        }
+
+        put(key, new Entry(result.getStatusCode(), result.getResponseBody(), size, result.getResponseHash(),
+                etag, lastModified, System.currentTimeMillis() + freshness));
+    }
+
+    // Vary'deki her header anahtarda olmalı; Vary: * hiçbir zaman eşleşmez
+    private boolean variesOnlyByKeyHeaders(HttpHeaders responseHeaders) {
+        for (String value : responseHeaders.getOrEmpty(HttpHeaders.VARY)) {
+            for (String token : value.split(",")) {
+                String name = token.trim().toLowerCase(Locale.ROOT);
+                if (!name.isEmpty() && !keyHeaderNames.contains(name)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // s-maxage > max-age > Expires; Age düşülür; no-cache → 0 (her seferinde doğrula); geçersiz Date → -1 (önbelleğe alınmaz)
+    private long freshnessMillis(HttpHeaders responseHeaders) {
+        if (hasDirective(responseHeaders, "no-cache")) {
+            return 0;
+        }
+        Long seconds = directiveSeconds(responseHeaders, "s-maxage");
+        if (seconds == null) {
+            seconds = directiveSeconds(responseHeaders, "max-age");
+        }
+
+        long freshness;
+        if (seconds != null) {
+            freshness = seconds * 1000;
+        } else {
+            long expires = responseHeaders.getExpires();
+            long date;
+            try {
+                date = responseHeaders.getDate();
+            } catch (IllegalArgumentException e) {
+                log.debug("Geçersiz Date header'ı, yanıt önbelleğe alınmıyor: {}", responseHeaders.getFirst(HttpHeaders.DATE));
+                return -1;
+            }
+            freshness = expires > 0 ? expires - (date > 0 ? date : System.currentTimeMillis()) : 0;
+        }
+
+        String age = responseHeaders.getFirst(HttpHeaders.AGE);
+        if (age != null) {
+            try {
+                freshness -= Long.parseLong(age.trim()) * 1000;
+            } catch (NumberFormatException ignored) {
+                // Geçersiz Age header'ı yok sayılır
+            }
+        }
+        return Math.max(0, Math.min(freshness, maxTtlMs));
+    }
+
+    private static boolean hasDirective(HttpHeaders headers, String directive) {
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String token : value.split(",")) {
+                String name = token.trim().toLowerCase(Locale.ROOT);
+                if (name.equals(directive) || name.startsWith(directive + "=")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Long directiveSeconds(HttpHeaders headers, String directive) {
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String token : value.split(",")) {
+                String trimmed = token.trim().toLowerCase(Locale.ROOT);
+                if (trimmed.startsWith(directive + "=")) {
+                    try {
+                        return Long.parseLong(trimmed.substring(directive.length() + 1).replace("\"", ""));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        entries.put(key, entry);
+        while (entries.size() > maxEntries) {
+            String eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+        }
+    }
+
+    private synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        double served = hits.count() + revalidations.count();
+        double total = served + misses.count();
+        return total > 0 ? served / total : 0.0;
+    }
+
+    private Counter requestCounter(RelayCacheStatus status) {
+        return Counter.builder("relay.cache.requests")
+                .description("GET relay önbellek sonuçları")
+                .tag("result", status.name())
+                .register(meterRegistry);
+    }
+
+    private static String firstNonNull(String first, String second) {
+        return first != null ? first : second;
+    }
+}
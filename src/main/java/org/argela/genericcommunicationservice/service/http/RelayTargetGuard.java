@@ -0,0 +1,310 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.enums.RelayFailureReason;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hedef host (host:port) başına izolasyon: bulkhead + circuit breaker.
+ * Bulkhead: hedefe aynı anda yapılabilecek çağrı sayısı sınırlıdır, dolduğunda çağrı beklemeden reddedilir.
+ * Circuit breaker: art arda bağlantı/5xx hatalarında OPEN olur ve çağrılar timeout beklemeden reddedilir;
+ * süre dolunca HALF_OPEN'da sınırlı sayıda probe geçer, başarılıysa CLOSED'a döner.
+ * Hedefler çağırandan geldiği için CLOSED, boşta ve target-idle-evict-ms'dir kullanılmayan hedeflerin durumu
+ * ve target tag'li metrikleri bırakılır.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelayTargetGuard {
+
+    public enum CircuitState { CLOSED, HALF_OPEN, OPEN }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.relay.guard.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.relay.guard.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${app.relay.guard.bulkhead-wait-ms:0}")
+    private long bulkheadWaitMs;
+
+    @Value("${app.relay.guard.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.relay.guard.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${app.relay.guard.half-open-probes:1}")
+    private int halfOpenProbes;
+
+    @Value("${app.relay.target-idle-evict-ms:600000}")
+    private long targetIdleEvictMs;
+
+    private final Map<String, TargetState> targets = new ConcurrentHashMap<>();
+
+    // =============== ÇAĞRI KAPISI ===============
+
+    /**
+     * Hedefe çağrı izni ister.
+     *
+     * @return null ise izin verildi (release() çağrılmalı), aksi halde ret nedeni
+     */
+    public RelayFailureReason tryAcquire(String target) {
+        if (!enabled || target == null) {
+            return null;
+        }
+        TargetState state = touch(target);
+
+        if (!state.admitThroughBreaker(System.currentTimeMillis())) {
+            state.rejectedCircuitOpen.increment();
+            return RelayFailureReason.CIRCUIT_OPEN;
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkheadWaitMs > 0 ?
+                    state.bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS) : state.bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            state.cancelProbe();
+            state.rejectedBulkheadFull.increment();
+            return RelayFailureReason.BULKHEAD_FULL;
+        }
+        return null;
+    }
+
+    /**
+     * tryAcquire() ile alınan izni bırakır ve çağrının sonucunu breaker'a bildirir.
+     *
+     * @param targetFailure bağlantı hatası / 5xx gibi hedefin sağlıksız olduğunu gösteren sonuç
+     */
+    public void release(String target, boolean targetFailure) {
+        if (!enabled || target == null) {
+            return;
+        }
+        // İzin alınmış hedef boşta sayılmadığından bırakılmamıştır
+        TargetState state = targets.get(target);
+        if (state == null) {
+            return;
+        }
+        state.bulkhead.release();
+        if (targetFailure) {
+            state.onFailure(System.currentTimeMillis());
+        } else {
+            state.onSuccess();
+        }
+    }
+
+    /**
+     * tryAcquire() ile alınan izni çağrı yapılmadan bırakır (ör. adaptif limit reddetti).
+     * Sonuç breaker'a bildirilmez; HALF_OPEN'daki probe hakkı geri verilir.
+     */
+    public void abandon(String target) {
+        if (!enabled || target == null) {
+            return;
+        }
+        TargetState state = targets.get(target);
+        if (state == null) {
+            return;
+        }
+        state.bulkhead.release();
+        state.cancelProbe();
+    }
+
+    // =============== DURUM ===============
+
+    /**
+     * Tüm hedeflerin breaker/bulkhead durumu (endpoint için)
+     */
+    public List<Map<String, Object>> snapshot() {
+        return targets.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.naturalOrder()))
+                .map(entry -> entry.getValue().toMap(entry.getKey()))
+                .toList();
+    }
+
+    /**
+     * Hedefin breaker'ını elle kapatır (hedef düzeldiğinde beklemeden trafiği açmak için)
+     */
+    public boolean reset(String target) {
+        TargetState state = targets.get(target);
+        if (state == null) {
+            return false;
+        }
+        state.close();
+        log.info("🔄 Circuit breaker sıfırlandı: {}", target);
+        return true;
+    }
+
+    /**
+     * CLOSED, boşta ve target-idle-evict-ms'dir kullanılmayan hedeflerin durumunu ve metriklerini bırakır
+     */
+    @Scheduled(fixedDelayString = "${app.relay.target-idle-evict-ms:600000}")
+    public void evictIdleTargets() {
+        long cutoff = System.currentTimeMillis() - targetIdleEvictMs;
+        for (String target : targets.keySet()) {
+            targets.computeIfPresent(target, (key, state) -> {
+                if (!state.isIdleSince(cutoff)) {
+                    return state;
+                }
+                state.meters.forEach(meterRegistry::remove);
+                return null;
+            });
+        }
+    }
+
+    // Kullanım zamanı tahliye ile aynı kilit altında işlenir; izin alan çağrının hedefi tahliye edilmez
+    private TargetState touch(String target) {
+        return targets.compute(target, (key, state) -> {
+            TargetState current = state != null ? state : createState(key);
+            current.lastUsedAt = System.currentTimeMillis();
+            return current;
+        });
+    }
+
+    private TargetState createState(String target) {
+        TargetState state = new TargetState(target,
+                Counter.builder("relay.guard.rejections")
+                        .description("Hedef izolasyonu nedeniyle yapılmadan reddedilen relay çağrıları")
+                        .tag("target", target).tag("reason", RelayFailureReason.CIRCUIT_OPEN.name())
+                        .register(meterRegistry),
+                Counter.builder("relay.guard.rejections")
+                        .description("Hedef izolasyonu nedeniyle yapılmadan reddedilen relay çağrıları")
+                        .tag("target", target).tag("reason", RelayFailureReason.BULKHEAD_FULL.name())
+                        .register(meterRegistry));
+
+        state.meters.add(state.rejectedCircuitOpen);
+        state.meters.add(state.rejectedBulkheadFull);
+        state.meters.add(Gauge.builder("relay.guard.circuit.state", state, s -> s.currentState().ordinal())
+                .description("Circuit breaker durumu (0=CLOSED, 1=HALF_OPEN, 2=OPEN)")
+                .tag("target", target)
+                .register(meterRegistry));
+        state.meters.add(Gauge.builder("relay.guard.inflight", state, s -> maxInFlight - s.bulkhead.availablePermits())
+                .description("Hedefe devam eden relay çağrısı sayısı")
+                .tag("target", target)
+                .register(meterRegistry));
+        return state;
+    }
+
+    // =============== İÇ SINIFLAR ===============
+
+    private final class TargetState {
+        private final String target;
+        private final Semaphore bulkhead = new Semaphore(maxInFlight);
+        private final Counter rejectedCircuitOpen;
+        private final Counter rejectedBulkheadFull;
+        private final List<Meter> meters = new ArrayList<>(4);
+        private volatile long lastUsedAt;
+
+        // Aşağıdaki alanlar this üzerinde senkronize
+        private CircuitState state = CircuitState.CLOSED;
+        private int consecutiveFailures;
+        private int probesInFlight;
+        private int probeSuccesses;
+        private long openedAtMillis;
+
+        private TargetState(String target, Counter rejectedCircuitOpen, Counter rejectedBulkheadFull) {
+            this.target = target;
+            this.rejectedCircuitOpen = rejectedCircuitOpen;
+            this.rejectedBulkheadFull = rejectedBulkheadFull;
+        }
+
+        private synchronized boolean admitThroughBreaker(long now) {
+            if (state == CircuitState.OPEN) {
+                if (now - openedAtMillis < openDurationMs) {
+                    return false;
+                }
+                transition(CircuitState.HALF_OPEN);
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (probesInFlight >= halfOpenProbes) {
+                    return false;
+                }
+                probesInFlight++;
+            }
+            return true;
+        }
+
+        // Breaker izin verdi ama çağrı yapılmadı - probe hakkını geri ver
+        private synchronized void cancelProbe() {
+            if (state == CircuitState.HALF_OPEN && probesInFlight > 0) {
+                probesInFlight--;
+            }
+        }
+
+        private synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            if (state == CircuitState.HALF_OPEN) {
+                probesInFlight = Math.max(0, probesInFlight - 1);
+                if (++probeSuccesses >= halfOpenProbes) {
+                    transition(CircuitState.CLOSED);
+                }
+            }
+        }
+
+        private synchronized void onFailure(long now) {
+            consecutiveFailures++;
+            if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                if (state != CircuitState.OPEN) {
+                    transition(CircuitState.OPEN);
+                }
+                openedAtMillis = now;
+            }
+        }
+
+        private synchronized void close() {
+            consecutiveFailures = 0;
+            transition(CircuitState.CLOSED);
+        }
+
+        private synchronized CircuitState currentState() {
+            return state;
+        }
+
+        private synchronized boolean isIdleSince(long cutoff) {
+            return lastUsedAt < cutoff && state == CircuitState.CLOSED && bulkhead.availablePermits() == maxInFlight;
+        }
+
+        private void transition(CircuitState next) {
+            log.info("⚡ Circuit breaker {}: {} -> {}", target, state, next);
+            state = next;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+
+        private synchronized Map<String, Object> toMap(String key) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("target", key);
+            map.put("state", state);
+            map.put("consecutiveFailures", consecutiveFailures);
+            map.put("openedAt", state == CircuitState.OPEN ? Instant.ofEpochMilli(openedAtMillis) : null);
+            map.put("inFlight", maxInFlight - bulkhead.availablePermits());
+            map.put("maxInFlight", maxInFlight);
+            map.put("rejectedCircuitOpen", (long) rejectedCircuitOpen.count());
+            map.put("rejectedBulkheadFull", (long) rejectedBulkheadFull.count());
+            return map;
+        }
+    }
+}
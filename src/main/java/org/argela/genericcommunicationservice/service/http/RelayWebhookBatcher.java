@@ -0,0 +1,356 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.dto.RestSendDto;
+import org.argela.genericcommunicationservice.enums.RelayFailureReason;
+import org.argela.genericcommunicationservice.service.JsonPayloads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Aynı hedefe (URL + method + header'lar) kısa pencere içinde gelen JSON mesajlarını tek bir
+ * JSON array POST'unda birleştirir. Pencere süresi dolunca, max-items veya max-bytes aşılınca batch gönderilir.
+ * Mesaj başına sonuç batch yanıtından çıkarılır: yanıt aynı uzunlukta bir JSON array ise i. eleman
+ * i. mesajın sonucudur (sayı veya status/statusCode alanı olan obje), değilse batch sonucu tüm mesajlara uygulanır.
+ * Deadline anahtara dahil değildir: gönderimde deadline'ı dolmuş mesajlar batch'ten çıkarılır,
+ * batch'e kalanların en erken deadline'ı uygulanır.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelayWebhookBatcher {
+
+    // Hedefin batch boyutunu görebilmesi için eklenen header
+    public static final String BATCH_SIZE_HEADER = "X-Relay-Batch-Size";
+
+    private final HttpRelaySender httpRelaySender;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.relay.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.relay.batch.window-ms:20}")
+    private long windowMs;
+
+    @Value("${app.relay.batch.max-items:100}")
+    private int maxItems;
+
+    @Value("${app.relay.batch.max-bytes:1048576}")
+    private long maxBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, PendingBatch> open = new HashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("relay-batch-timer").daemon(true).factory());
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("relay-batch-", 0).factory());
+
+    private DistributionSummary batchSize;
+    private final Map<String, Counter> flushCounters = new HashMap<>();
+
+    @PostConstruct
+    public void registerMetrics() {
+        batchSize = DistributionSummary.builder("relay.batch.size")
+                .description("Tek POST'ta birleştirilen mesaj sayısı")
+                .register(meterRegistry);
+        for (String reason : List.of("window", "items", "bytes", "shutdown")) {
+            flushCounters.put(reason, Counter.builder("relay.batch.flushes")
+                    .description("Gönderilen batch sayısı (tetikleyen nedene göre)")
+                    .tag("reason", reason)
+                    .register(meterRegistry));
+        }
+    }
+
+    // =============== GİRİŞ ===============
+
+    /**
+     * Mesaj batch'lenebilir mi: özellik açık, mesaj opt-in, tekil hedef, gövdeli method ve geçerli JSON gövde
+     */
+    public boolean appliesTo(RestSendDto dto) {
+        if (!enabled || !Boolean.TRUE.equals(dto.getBatch()) || dto.isFanOut() || dto.getHeaders() == null) {
+            return false;
+        }
+        String method = headerValue(dto.getHeaders(), "method");
+        if (method != null && (method.equalsIgnoreCase("GET") || method.equalsIgnoreCase("HEAD"))) {
+            return false;
+        }
+        String contentType = headerValue(dto.getHeaders(), "Content-Type");
+        if (contentType != null && !contentType.toLowerCase().contains("json")) {
+            return false;
+        }
+        return dto.getBody() != null && !dto.getBody().isBlank() && JsonPayloads.isJson(objectMapper.getFactory(), dto.getBody());
+    }
+
+    /**
+     * Mesajı hedefin açık batch'ine ekler. Future batch gönderildiğinde mesajın kendi sonucuyla tamamlanır.
+     */
+    public CompletableFuture<HttpRelaySender.HttpRelayResult> submit(RestSendDto dto) {
+        Map<String, String> keyHeaders = keyHeaders(dto);
+        String key = keyHeaders.toString();
+        long bytes = HttpRelaySender.encodedLength(dto.getBody(), StandardCharsets.UTF_8);
+        Item item = new Item(dto.getBody(), bytes, RelayDeadline.of(dto.getHeaders()), new CompletableFuture<>());
+
+        List<PendingBatch> ready = new ArrayList<>(2);
+        List<String> reasons = new ArrayList<>(2);
+        lock.lock();
+        try {
+            PendingBatch batch = open.get(key);
+            if (batch != null && !batch.items.isEmpty() && batch.bytes + bytes > maxBytes) {
+                close(batch);
+                ready.add(batch);
+                reasons.add("bytes");
+                batch = null;
+            }
+            if (batch == null) {
+                PendingBatch created = new PendingBatch(key, keyHeaders);
+                created.timer = scheduler.schedule(() -> flushExpired(created), windowMs, TimeUnit.MILLISECONDS);
+                open.put(key, created);
+                batch = created;
+            }
+            batch.items.add(item);
+            batch.bytes += bytes;
+            if (batch.items.size() >= maxItems || batch.bytes >= maxBytes) {
+                close(batch);
+                ready.add(batch);
+                reasons.add(batch.items.size() >= maxItems ? "items" : "bytes");
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (int i = 0; i < ready.size(); i++) {
+            dispatch(ready.get(i), reasons.get(i));
+        }
+        return item.result;
+    }
+
+    /**
+     * Mesajı henüz gönderilmemiş batch'inden çıkarır (bekleyen çağıran vazgeçtiğinde).
+     *
+     * @return batch gönderime geçmişse (veya mesaj bulunamazsa) false - hedef mesajı alacaktır
+     */
+    public boolean withdraw(RestSendDto dto, CompletableFuture<HttpRelaySender.HttpRelayResult> result) {
+        String key = keyHeaders(dto).toString();
+        lock.lock();
+        try {
+            PendingBatch batch = open.get(key);
+            if (batch == null) {
+                return false;
+            }
+            for (Iterator<Item> iterator = batch.items.iterator(); iterator.hasNext(); ) {
+                Item item = iterator.next();
+                if (item.result == result) {
+                    iterator.remove();
+                    batch.bytes -= item.bytes;
+                    if (batch.items.isEmpty()) {
+                        close(batch);
+                    }
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Batch anahtarı: deadline hariç header'lar
+    private static Map<String, String> keyHeaders(RestSendDto dto) {
+        Map<String, String> keyHeaders = new TreeMap<>(dto.getHeaders());
+        keyHeaders.remove(RelayDeadline.DEADLINE_KEY);
+        return keyHeaders;
+    }
+
+    // =============== GÖNDERİM ===============
+
+    private void flushExpired(PendingBatch batch) {
+        lock.lock();
+        try {
+            if (open.get(batch.key) != batch) {
+                return;
+            }
+            open.remove(batch.key);
+        } finally {
+            lock.unlock();
+        }
+        dispatch(batch, "window");
+    }
+
+    // lock altında çağrılır
+    private void close(PendingBatch batch) {
+        open.remove(batch.key);
+        if (batch.timer != null) {
+            batch.timer.cancel(false);
+        }
+    }
+
+    private void dispatch(PendingBatch batch, String reason) {
+        flushCounters.get(reason).increment();
+        batchSize.record(batch.items.size());
+        try {
+            executor.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            completeAll(batch, HttpRelaySender.HttpRelayResult.failure(RelayFailureReason.UNEXPECTED, 0,
+                    "Rejected: uygulama kapanıyor", null));
+        }
+    }
+
+    private void send(PendingBatch batch) {
+        try {
+            // Beklerken deadline'ı dolanlar gönderilmez
+            List<Item> items = new ArrayList<>(batch.items.size());
+            Long deadline = null;
+            for (Item item : batch.items) {
+                if (RelayDeadline.isExpired(item.deadline)) {
+                    item.result.complete(HttpRelaySender.HttpRelayResult.failure(RelayFailureReason.DEADLINE_EXCEEDED, 0,
+                            "Deadline Exceeded: batch penceresinde beklerken doldu, çağrı yapılmadı", null));
+                } else {
+                    items.add(item);
+                    if (item.deadline != null) {
+                        deadline = deadline == null ? item.deadline : Math.min(deadline, item.deadline);
+                    }
+                }
+            }
+            if (items.isEmpty()) {
+                return;
+            }
+
+            RestSendDto batchDto = new RestSendDto();
+            Map<String, String> headers = new LinkedHashMap<>(batch.headers);
+            headers.put(BATCH_SIZE_HEADER, String.valueOf(items.size()));
+            if (deadline != null) {
+                headers.put(RelayDeadline.DEADLINE_KEY, String.valueOf(deadline));
+            }
+            batchDto.setHeaders(headers);
+            batchDto.setBody(items.stream().map(Item::body).collect(Collectors.joining(",", "[", "]")));
+
+            log.info("📦 Batch gönderiliyor: {} mesaj, {} byte", items.size(), batch.bytes);
+            HttpRelaySender.HttpRelayResult result = httpRelaySender.send(batchDto);
+
+            List<HttpRelaySender.HttpRelayResult> perItem = split(result, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                items.get(i).result.complete(perItem != null ? perItem.get(i) : result);
+            }
+        } catch (RuntimeException e) {
+            log.error("Batch gönderim hatası: {}", e.getMessage(), e);
+            completeAll(batch, HttpRelaySender.HttpRelayResult.failure(RelayFailureReason.UNEXPECTED, 0,
+                    "Unexpected Error: " + e.getMessage(), null));
+        }
+    }
+
+    // Yanıt mesaj sayısı kadar elemanlı JSON array ise mesaj başına sonuç, değilse null (batch sonucu herkese)
+    private List<HttpRelaySender.HttpRelayResult> split(HttpRelaySender.HttpRelayResult result, int size) {
+        if (!result.isDelivered() || result.isResponseTruncated() || result.getResponseBody() == null) {
+            return null;
+        }
+        JsonNode array;
+        try {
+            array = objectMapper.readTree(result.getResponseBody());
+        } catch (IOException e) {
+            return null;
+        }
+        if (array == null || !array.isArray() || array.size() != size) {
+            return null;
+        }
+
+        List<HttpRelaySender.HttpRelayResult> results = new ArrayList<>(size);
+        for (JsonNode element : array) {
+            Integer status = statusOf(element);
+            results.add(HttpRelaySender.HttpRelayResult.batchItem(
+                    status != null ? status : result.getStatusCode(), element.toString()));
+        }
+        return results;
+    }
+
+    private Integer statusOf(JsonNode element) {
+        if (element.isInt()) {
+            return element.asInt();
+        }
+        if (element.isObject()) {
+            for (String field : List.of("status", "statusCode")) {
+                JsonNode value = element.get(field);
+                if (value != null && value.isInt()) {
+                    return value.asInt();
+                }
+            }
+        }
+        return null;
+    }
+
+    private void completeAll(PendingBatch batch, HttpRelaySender.HttpRelayResult result) {
+        batch.items.forEach(item -> item.result.complete(result));
+    }
+
+    // =============== YARDIMCI ===============
+
+    private static String headerValue(Map<String, String> headers, String name) {
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<PendingBatch> remaining;
+        lock.lock();
+        try {
+            remaining = new ArrayList<>(open.values());
+            remaining.forEach(this::close);
+        } finally {
+            lock.unlock();
+        }
+        scheduler.shutdownNow();
+        remaining.forEach(batch -> dispatch(batch, "shutdown"));
+        executor.close();
+    }
+
+    // =============== İÇ SINIFLAR ===============
+
+    private record Item(String body, long bytes, Long deadline, CompletableFuture<HttpRelaySender.HttpRelayResult> result) {
+    }
+
+    private static final class PendingBatch {
+        private final String key;
+        private final Map<String, String> headers;
+        private final List<Item> items = new ArrayList<>();
+        private long bytes;
+        private ScheduledFuture<?> timer;
+
+        private PendingBatch(String key, Map<String, String> headers) {
+            this.key = key;
+            this.headers = headers;
+        }
+    }
+}
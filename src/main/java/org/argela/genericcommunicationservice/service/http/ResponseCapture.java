@@ -0,0 +1,91 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Relay yanıtını sabit bellekle okur: ilk N byte saklanır, tamamı boyunca toplam boyut ve SHA-256 hesaplanır.
+ * Discard modunda gövde hiç saklanmaz, boyut Content-Length'ten alınır.
+ * Çağrının deadline'ı varsa okuma, yavaş akan yanıtlarda da deadline'da kesilir.
+ */
+public final class ResponseCapture {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ResponseCapture() {
+    }
+
+    /**
+     * Okunan yanıtın özeti
+     *
+     * @param body       saklanan ilk limitBytes kadar gövde (boşsa null)
+     * @param totalBytes gövdenin toplam boyutu (discard'da bilinmiyorsa null)
+     * @param sha256     tüm gövdenin hash'i (hex, discard'da null)
+     * @param truncated  gövde limit nedeniyle kesildi mi
+     * @param headers    yanıt header'ları (önbellek kararları için)
+     */
+    public record Captured(int statusCode, String statusText, String body, Long totalBytes, String sha256,
+                           boolean truncated, HttpHeaders headers) {
+    }
+
+    public static Captured read(ClientHttpResponse response, int limitBytes, boolean discard) throws IOException {
+        int statusCode = response.getStatusCode().value();
+        String statusText = response.getStatusText();
+        HttpHeaders headers = response.getHeaders();
+
+        if (discard) {
+            long contentLength = headers.getContentLength();
+            return new Captured(statusCode, statusText, null, contentLength >= 0 ? contentLength : null, null, false, headers);
+        }
+
+        MessageDigest digest = sha256();
+        ByteArrayOutputStream kept = new ByteArrayOutputStream(Math.min(Math.max(limitBytes, 0), BUFFER_SIZE));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+
+        try (InputStream in = response.getBody()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (RelayDeadline.remainingMillis() <= 0) {
+                    throw new SocketTimeoutException("Deadline aşıldı: yanıt okuması yarıda bırakıldı (" + total + " byte)");
+                }
+                digest.update(buffer, 0, read);
+                int keep = (int) Math.min(read, Math.max(0, limitBytes - total));
+                if (keep > 0) {
+                    kept.write(buffer, 0, keep);
+                }
+                total += read;
+            }
+        }
+
+        if (total == 0) {
+            return new Captured(statusCode, statusText, null, 0L, null, false, headers);
+        }
+        return new Captured(statusCode, statusText, kept.toString(charsetOf(response)), total,
+                HexFormat.of().formatHex(digest.digest()), total > limitBytes, headers);
+    }
+
+    private static Charset charsetOf(ClientHttpResponse response) {
+        MediaType contentType = response.getHeaders().getContentType();
+        return contentType != null && contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 desteklenmiyor", e);
+        }
+    }
+}
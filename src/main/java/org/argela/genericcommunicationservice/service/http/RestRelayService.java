@@ -0,0 +1,469 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.dto.RestSendDto;
+import org.argela.genericcommunicationservice.entity.MessageEntity;
+import org.argela.genericcommunicationservice.entity.RelayAttemptEntity;
+import org.argela.genericcommunicationservice.enums.MessageStatus;
+import org.argela.genericcommunicationservice.enums.ProtocolType;
+import org.argela.genericcommunicationservice.enums.RelayFailureReason;
+import org.argela.genericcommunicationservice.repository.RelayAttemptRepository;
+import org.argela.genericcommunicationservice.service.MessageService;
+import org.argela.genericcommunicationservice.service.rollup.MessageRollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * REST relay akışı: mesajı kaydet → HTTP çağrısı → sonucu kaydet.
+ * Senkron modda çağrı istek thread'inde yapılır. Async modda mesaj QUEUED olarak kaydedilip
+ * hemen döner, çağrı virtual thread üzerinde yapılır ve sonuç sonradan yazılır (opsiyonel callback).
+ * Async çağrılar hedef (host:port) başına bir semaphore ile sınırlandırılır; target-idle-evict-ms boyunca
+ * kullanılmayan hedeflerin semaphore'u ve metriği bırakılır (hedefler çağırandan geldiği için sınırsız büyümesin).
+ * Fan-out'ta (targetUrls / subscriberSet) gövde bir kez saklanır, hedefler sınırlı paralellikle çağrılır,
+ * hedef başına kompakt bir relay_attempts satırı yazılır ve mesaja toplam durum (DELIVERED/PARTIAL/FAILED) işlenir.
+ * 'timeout-ms' kabul anında mutlak 'deadline-ms'e çevrilir; deadline'ı dolan mesaj için hedefe çağrı yapılmaz.
+ * Batch opt-in mesajlar RelayWebhookBatcher üzerinden aynı hedefin diğer mesajlarıyla tek POST'ta gönderilir.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RestRelayService {
+
+    private final MessageService messageService;
+    private final HttpRelaySender httpRelaySender;
+    private final RelayWebhookBatcher relayWebhookBatcher;
+    private final MessageRollupService messageRollupService;
+    private final RestSubscriberSetService restSubscriberSetService;
+    private final RelayAttemptRepository relayAttemptRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private static final String INSERT_ATTEMPT_SQL = """
+            INSERT INTO relay_attempts (message_id, url, status, response_status, failure_reason, latency_ms, attempted_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    @Value("${app.relay.async.max-concurrency-per-target:32}")
+    private int maxConcurrencyPerTarget;
+
+    @Value("${app.relay.async.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${app.relay.fanout.max-targets:100}")
+    private int fanOutMaxTargets;
+
+    @Value("${app.relay.fanout.max-concurrency:16}")
+    private int fanOutMaxConcurrency;
+
+    @Value("${app.relay.async.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${app.relay.http.connect-timeout-ms:30000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.relay.http.read-timeout-ms:60000}")
+    private long readTimeoutMs;
+
+    @Value("${app.relay.batch.window-ms:20}")
+    private long batchWindowMs;
+
+    // Bu süre boyunca çağrılmayan hedefin durumu ve metrikleri bırakılır
+    @Value("${app.relay.target-idle-evict-ms:600000}")
+    private long targetIdleEvictMs;
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rest-relay-", 0).factory());
+
+    private final Map<String, TargetPermits> targetPermits = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("relay.async.pending", pending, AtomicInteger::get)
+                .description("Kuyrukta bekleyen veya çalışan async REST relay sayısı")
+                .register(meterRegistry);
+    }
+
+    // =============== SENKRON ===============
+
+    /**
+     * Mesajı kaydeder, HTTP çağrısını bu thread'de yapar ve son durumu döner.
+     */
+    public MessageEntity send(RestSendDto dto) {
+        RelayDeadline.pin(dto);
+        List<String> targets = resolveFanOutTargets(dto);
+        MessageEntity savedMessage = messageService.saveRestMessage(dto, MessageStatus.RECEIVED);
+        return targets != null ? fanOut(savedMessage, dto, targets) : relay(savedMessage, dto);
+    }
+
+    // =============== ASYNC ===============
+
+    /**
+     * Mesajı QUEUED olarak kaydeder ve çağrıyı arka plana bırakır.
+     *
+     * @throws RejectedExecutionException bekleyen async relay sayısı sınırı aşıldıysa
+     */
+    public MessageEntity sendAsync(RestSendDto dto) {
+        RelayDeadline.pin(dto);
+        List<String> targets = resolveFanOutTargets(dto);
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new RejectedExecutionException("Async relay kuyruğu dolu (" + maxPending + ")");
+        }
+
+        MessageEntity savedMessage;
+        try {
+            savedMessage = messageService.saveRestMessage(dto, MessageStatus.QUEUED);
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+
+        try {
+            executor.execute(() -> relayAsync(savedMessage, dto, targets));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            messageService.completeRestMessage(savedMessage.getId(), MessageStatus.FAILED,
+                    HttpRelaySender.HttpRelayResult.failure(RelayFailureReason.UNEXPECTED, 0,
+                            "Rejected: uygulama kapanıyor", null));
+            throw e;
+        }
+
+        log.info("REST mesajı async kuyruğa alındı: id={}, url={}", savedMessage.getId(), savedMessage.getUrl());
+        return savedMessage;
+    }
+
+    private void relayAsync(MessageEntity savedMessage, RestSendDto dto, List<String> targets) {
+        try {
+            MessageEntity completed;
+            if (targets != null) {
+                completed = fanOut(savedMessage, dto, targets);
+            } else if (relayWebhookBatcher.appliesTo(dto)) {
+                // Batch tek bir hedef çağrısı - hedef permit'i batch boyutunu sınırlamasın
+                completed = relay(savedMessage, dto);
+            } else {
+                Semaphore permits = permitsFor(MessageRollupService.targetOfUrl(savedMessage.getUrl()));
+                // Deadline'lı mesaj permit için deadline'dan uzun beklemez
+                long remaining = RelayDeadline.remainingMillis(RelayDeadline.of(dto.getHeaders()));
+                boolean acquired = remaining == Long.MAX_VALUE ?
+                        acquirePermit(permits) : permits.tryAcquire(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+                if (acquired) {
+                    try {
+                        completed = relay(savedMessage, dto);
+                    } finally {
+                        permits.release();
+                    }
+                } else {
+                    completed = messageService.completeRestMessage(savedMessage.getId(), MessageStatus.FAILED,
+                            HttpRelaySender.HttpRelayResult.failure(RelayFailureReason.DEADLINE_EXCEEDED, 0,
+                                    "Deadline Exceeded: hedef kuyruğunda beklerken doldu, çağrı yapılmadı", null));
+                }
+            }
+            if (dto.getCallbackUrl() != null && !dto.getCallbackUrl().isBlank()) {
+                httpRelaySender.sendCallback(dto.getCallbackUrl().trim(), callbackPayload(completed));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            messageService.completeRestMessage(savedMessage.getId(), MessageStatus.FAILED,
+                    HttpRelaySender.HttpRelayResult.failure(RelayFailureReason.UNEXPECTED, 0,
+                            "Interrupted: uygulama kapanırken gönderilemedi", null));
+        } catch (Exception e) {
+            log.error("Async relay hatası: id={} -> {}", savedMessage.getId(), e.getMessage(), e);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    // =============== ORTAK ===============
+
+    private MessageEntity relay(MessageEntity savedMessage, RestSendDto dto) {
+        if (relayWebhookBatcher.appliesTo(dto)) {
+            return relayBatched(savedMessage, dto);
+        }
+        long startNanos = System.nanoTime();
+        return complete(savedMessage, httpRelaySender.send(dto), startNanos);
+    }
+
+    private MessageEntity complete(MessageEntity savedMessage, HttpRelaySender.HttpRelayResult result, long startNanos) {
+        long latencyMs = (System.nanoTime() - startNanos) / 1_000_000;
+
+        MessageStatus finalStatus = result.isDelivered() ? MessageStatus.DELIVERED : MessageStatus.FAILED;
+        messageRollupService.record(ProtocolType.REST,
+                MessageRollupService.targetOfUrl(savedMessage.getUrl()), finalStatus, latencyMs);
+
+        return messageService.completeRestMessage(savedMessage.getId(), finalStatus, result);
+    }
+
+    /**
+     * Batch flush'ı takılırsa çağıran sonsuza kadar beklemez: kalan deadline, yoksa window + connect + read timeout.
+     * Süre dolduğunda mesaj henüz gönderilmemiş batch'ten çıkarılır; batch zaten gönderimdeyse hedef mesajı alacağından
+     * batch'in sonucu geldiğinde mesajın durumu onunla yeniden yazılır.
+     */
+    private MessageEntity relayBatched(MessageEntity savedMessage, RestSendDto dto) {
+        long startNanos = System.nanoTime();
+        long remaining = RelayDeadline.remainingMillis(RelayDeadline.of(dto.getHeaders()));
+        boolean hasDeadline = remaining != Long.MAX_VALUE;
+        long timeoutMs = hasDeadline ? Math.max(0, remaining) : batchWindowMs + connectTimeoutMs + readTimeoutMs;
+
+        CompletableFuture<HttpRelaySender.HttpRelayResult> submitted = relayWebhookBatcher.submit(dto);
+        HttpRelaySender.HttpRelayResult result;
+        boolean inFlight = false;
+        try {
+            // copy(): timeout batch'in kendi future'ını tamamlamasın, geç gelen sonuç kaybolmasın
+            result = submitted.copy().orTimeout(timeoutMs, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof TimeoutException)) {
+                throw e;
+            }
+            inFlight = !relayWebhookBatcher.withdraw(dto, submitted);
+            log.warn("Batch relay {} ms içinde tamamlanmadı: id={}, url={}{}", timeoutMs, savedMessage.getId(),
+                    savedMessage.getUrl(), inFlight ? " (batch gönderimde, sonuç gelince güncellenecek)" : "");
+            result = hasDeadline ?
+                    HttpRelaySender.HttpRelayResult.failure(RelayFailureReason.DEADLINE_EXCEEDED, 0,
+                            "Deadline Exceeded: batch gönderimi beklenirken doldu", null) :
+                    HttpRelaySender.HttpRelayResult.failure(RelayFailureReason.UNEXPECTED, 0,
+                            "Timeout: batch gönderimi " + timeoutMs + " ms içinde tamamlanmadı", null);
+        }
+
+        MessageEntity completed = complete(savedMessage, result, startNanos);
+        if (inFlight) {
+            submitted.thenAccept(late -> messageService.completeRestMessage(savedMessage.getId(),
+                    late.isDelivered() ? MessageStatus.DELIVERED : MessageStatus.FAILED, late));
+        }
+        return completed;
+    }
+
+    // =============== FAN-OUT ===============
+
+    // Fan-out istenmiyorsa null; aksi halde doğrulanmış, tekrarsız hedef listesi
+    private List<String> resolveFanOutTargets(RestSendDto dto) {
+        if (!dto.isFanOut()) {
+            return null;
+        }
+        List<String> targets = restSubscriberSetService.resolveTargets(dto.getTargetUrls(), dto.getSubscriberSet());
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("Fan-out için en az bir hedef URL gerekli");
+        }
+        if (targets.size() > fanOutMaxTargets) {
+            throw new IllegalArgumentException("Fan-out hedef sayısı sınırı aşıldı: " + targets.size() + " > " + fanOutMaxTargets);
+        }
+        return targets;
+    }
+
+    private MessageEntity fanOut(MessageEntity savedMessage, RestSendDto dto, List<String> targets) {
+        Semaphore concurrency = new Semaphore(fanOutMaxConcurrency);
+        List<Future<RelayAttemptEntity>> futures = new ArrayList<>(targets.size());
+        for (String url : targets) {
+            try {
+                futures.add(executor.submit(() -> {
+                    concurrency.acquire();
+                    try {
+                        return attempt(savedMessage.getId(), dto, url);
+                    } finally {
+                        concurrency.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                // Uygulama kapanıyor - hedef çağrılmadan başarısız deneme olarak yazılır
+                log.warn("Fan-out hedefi kapanış nedeniyle çağrılmadı: id={}, url={}", savedMessage.getId(), url);
+                futures.add(null);
+            }
+        }
+
+        List<RelayAttemptEntity> attempts = new ArrayList<>(targets.size());
+        for (int i = 0; i < futures.size(); i++) {
+            if (futures.get(i) == null) {
+                attempts.add(failedAttempt(savedMessage.getId(), targets.get(i)));
+                continue;
+            }
+            try {
+                attempts.add(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.stream().filter(Objects::nonNull).forEach(future -> future.cancel(true));
+                attempts.add(failedAttempt(savedMessage.getId(), targets.get(i)));
+            } catch (ExecutionException | CancellationException e) {
+                log.error("Fan-out hedef hatası: {} -> {}", targets.get(i), e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                attempts.add(failedAttempt(savedMessage.getId(), targets.get(i)));
+            }
+        }
+
+        saveAttempts(attempts);
+
+        long delivered = attempts.stream().filter(a -> a.getStatus() == MessageStatus.DELIVERED).count();
+        MessageStatus aggregate = delivered == attempts.size() ? MessageStatus.DELIVERED :
+                delivered == 0 ? MessageStatus.FAILED : MessageStatus.PARTIAL;
+
+        // Tüm hedefler aynı nedenle düştüyse nedeni mesaja da yaz
+        Set<RelayFailureReason> reasons = attempts.stream()
+                .map(RelayAttemptEntity::getFailureReason)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        RelayFailureReason failureReason = aggregate == MessageStatus.FAILED && reasons.size() == 1 ?
+                reasons.iterator().next() : null;
+
+        log.info("Fan-out tamamlandı: id={}, {}/{} hedef teslim edildi", savedMessage.getId(), delivered, attempts.size());
+        // Gövde bir kez saklandı - hata detayı gövdeye eklenmez, relay_attempts'te durur
+        return messageService.completeRestMessage(savedMessage.getId(), aggregate,
+                failureReason != null ? HttpRelaySender.HttpRelayResult.failure(failureReason, 0, null, null) : null);
+    }
+
+    /**
+     * Fan-out mesajının hedef bazlı denemeleri
+     */
+    public List<RelayAttemptEntity> getAttempts(Long messageId) {
+        return relayAttemptRepository.findByMessageIdOrderByIdAsc(messageId);
+    }
+
+    private RelayAttemptEntity attempt(Long messageId, RestSendDto dto, String url) {
+        long startNanos = System.nanoTime();
+        HttpRelaySender.HttpRelayResult result = httpRelaySender.send(dto, url);
+        long latencyMs = (System.nanoTime() - startNanos) / 1_000_000;
+
+        MessageStatus status = result.isDelivered() ? MessageStatus.DELIVERED : MessageStatus.FAILED;
+        messageRollupService.record(ProtocolType.REST, MessageRollupService.targetOfUrl(url), status, latencyMs);
+
+        RelayAttemptEntity attempt = new RelayAttemptEntity();
+        attempt.setMessageId(messageId);
+        attempt.setUrl(url);
+        attempt.setStatus(status);
+        attempt.setResponseStatus(result.getStatusCode() > 0 ? result.getStatusCode() : null);
+        attempt.setFailureReason(result.getFailureReason());
+        attempt.setLatencyMs(latencyMs);
+        attempt.setAttemptedAt(Instant.now());
+        return attempt;
+    }
+
+    private RelayAttemptEntity failedAttempt(Long messageId, String url) {
+        RelayAttemptEntity attempt = new RelayAttemptEntity();
+        attempt.setMessageId(messageId);
+        attempt.setUrl(url);
+        attempt.setStatus(MessageStatus.FAILED);
+        attempt.setFailureReason(RelayFailureReason.UNEXPECTED);
+        attempt.setAttemptedAt(Instant.now());
+        return attempt;
+    }
+
+    // Deneme satırları tek batch ile yazılır
+    private void saveAttempts(List<RelayAttemptEntity> attempts) {
+        List<Object[]> rows = new ArrayList<>(attempts.size());
+        for (RelayAttemptEntity attempt : attempts) {
+            rows.add(new Object[]{
+                    attempt.getMessageId(),
+                    attempt.getUrl(),
+                    attempt.getStatus().name(),
+                    attempt.getResponseStatus(),
+                    attempt.getFailureReason() != null ? attempt.getFailureReason().name() : null,
+                    attempt.getLatencyMs(),
+                    Timestamp.from(attempt.getAttemptedAt())
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_ATTEMPT_SQL, rows);
+    }
+
+    // =============== YARDIMCI ===============
+
+    private static boolean acquirePermit(Semaphore permits) throws InterruptedException {
+        permits.acquire();
+        return true;
+    }
+
+    private Semaphore permitsFor(String target) {
+        String key = target != null ? target : "unknown";
+        TargetPermits permits = targetPermits.computeIfAbsent(key, k -> {
+            Semaphore semaphore = new Semaphore(maxConcurrencyPerTarget, true);
+            Gauge gauge = Gauge.builder("relay.async.inflight", semaphore, s -> maxConcurrencyPerTarget - s.availablePermits())
+                    .description("Hedef başına çalışan async REST relay sayısı")
+                    .tag("target", k)
+                    .register(meterRegistry);
+            return new TargetPermits(semaphore, gauge);
+        });
+        permits.lastUsedAt = System.currentTimeMillis();
+        return permits.semaphore;
+    }
+
+    /**
+     * Boşta (çalışan çağrısı olmayan) ve target-idle-evict-ms'dir kullanılmayan hedeflerin semaphore'unu ve gauge'unu bırakır
+     */
+    @Scheduled(fixedDelayString = "${app.relay.target-idle-evict-ms:600000}")
+    public void evictIdleTargets() {
+        long cutoff = System.currentTimeMillis() - targetIdleEvictMs;
+        targetPermits.entrySet().removeIf(entry -> {
+            TargetPermits permits = entry.getValue();
+            if (permits.lastUsedAt >= cutoff || permits.semaphore.availablePermits() < maxConcurrencyPerTarget) {
+                return false;
+            }
+            meterRegistry.remove(permits.gauge);
+            return true;
+        });
+    }
+
+    private Map<String, Object> callbackPayload(MessageEntity message) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", message.getId());
+        payload.put("status", message.getStatus());
+        payload.put("url", message.getUrl());
+        payload.put("responseStatus", message.getResponseStatus());
+        payload.put("failureReason", message.getFailureReason());
+        payload.put("completedAt", message.getCompletedAt());
+        return payload;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("⚠️ {} async relay bitmeden kapatılıyor", pending.get());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    // =============== İÇ SINIFLAR ===============
+
+    private static final class TargetPermits {
+        private final Semaphore semaphore;
+        private final Meter gauge;
+        private volatile long lastUsedAt;
+
+        private TargetPermits(Semaphore semaphore, Meter gauge) {
+            this.semaphore = semaphore;
+            this.gauge = gauge;
+        }
+    }
+}
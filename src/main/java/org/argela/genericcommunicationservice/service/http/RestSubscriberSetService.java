@@ -0,0 +1,96 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.entity.RestSubscriberSetEntity;
+import org.argela.genericcommunicationservice.repository.RestSubscriberSetRepository;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * İsimli webhook abone kümeleri - Database CRUD + fan-out hedef çözümleme
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RestSubscriberSetService {
+
+    private final RestSubscriberSetRepository restSubscriberSetRepository;
+
+    /**
+     * Kümeyi oluşturur veya (aynı isim varsa) URL listesini günceller
+     */
+    public RestSubscriberSetEntity save(String name, List<String> urls, String description) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Abone kümesi adı boş olamaz");
+        }
+        List<String> normalized = normalize(urls);
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Abone kümesi en az bir URL içermeli");
+        }
+
+        RestSubscriberSetEntity entity = restSubscriberSetRepository.findByName(name.trim())
+                .orElseGet(RestSubscriberSetEntity::new);
+        entity.setName(name.trim());
+        entity.setUrls(normalized);
+        entity.setDescription(description);
+
+        log.info("💾 Abone kümesi kaydediliyor: {} ({} URL)", entity.getName(), normalized.size());
+        return restSubscriberSetRepository.save(entity);
+    }
+
+    public List<RestSubscriberSetEntity> list() {
+        return restSubscriberSetRepository.findAllByOrderByName();
+    }
+
+    public boolean delete(String name) {
+        return restSubscriberSetRepository.findByName(name)
+                .map(entity -> {
+                    restSubscriberSetRepository.delete(entity);
+                    log.info("🗑️ Abone kümesi silindi: {}", name);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Açık URL listesi ve/veya isimli küme → tekrarsız hedef listesi
+     */
+    public List<String> resolveTargets(List<String> targetUrls, String subscriberSet) {
+        Set<String> targets = new LinkedHashSet<>(normalize(targetUrls));
+        if (subscriberSet != null && !subscriberSet.isBlank()) {
+            RestSubscriberSetEntity set = restSubscriberSetRepository.findByName(subscriberSet.trim())
+                    .orElseThrow(() -> new IllegalArgumentException("Abone kümesi bulunamadı: " + subscriberSet));
+            targets.addAll(set.getUrls());
+        }
+        return List.copyOf(targets);
+    }
+
+    private static List<String> normalize(List<String> urls) {
+        if (urls == null) {
+            return List.of();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (String url : urls) {
+            if (url == null || url.isBlank()) {
+                continue;
+            }
+            String trimmed = url.trim();
+            URI uri;
+            try {
+                uri = URI.create(trimmed);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Geçersiz URL: " + trimmed);
+            }
+            if (uri.getScheme() == null || !uri.getScheme().toLowerCase().startsWith("http") || uri.getHost() == null) {
+                throw new IllegalArgumentException("Geçersiz URL (http/https olmalı): " + trimmed);
+            }
+            result.add(trimmed);
+        }
+        return List.copyOf(result);
+    }
+}
@@ -1,6 +1,11 @@
 package org.argela.genericcommunicationservice.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.argela.genericcommunicationservice.dto.MessageSearchCriteria;
 import org.argela.genericcommunicationservice.dto.RestSendDto;
 import org.argela.genericcommunicationservice.dto.RabbitSendDto;
 import org.argela.genericcommunicationservice.dto.WebSocketSendDto;
@@ -9,19 +14,56 @@ import org.argela.genericcommunicationservice.enums.MessageStatus;
 import org.argela.genericcommunicationservice.enums.ProtocolType;
 import org.argela.genericcommunicationservice.repository.MessageRepository;
 import org.argela.genericcommunicationservice.service.MessageService;
+import org.argela.genericcommunicationservice.service.http.HttpRelaySender;
+import org.argela.genericcommunicationservice.service.storage.MessageBodyCompressor;
+import org.argela.genericcommunicationservice.service.storage.MessageBodyStore;
+import org.argela.genericcommunicationservice.service.websocket.WebSocketSender;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class MessageServiceImpl implements MessageService {
 
     private final MessageRepository messageRepository;
+    private final MessageBodyCompressor messageBodyCompressor;
+    private final MessageBodyStore messageBodyStore;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final String BATCH_INSERT_SQL = """
+            INSERT INTO messages (method, url, version, headers, body, body_compressed, body_codec, body_hash,
+                                  sender, group_id, protocol, status, timestamp)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Export sırasında persistence context'in bu kadar satırda bir temizlenmesi (sabit bellek)
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
 
     // ✅ REST MESAJ SAKLAMA
     @Override
@@ -47,7 +89,7 @@ public class MessageServiceImpl implements MessageService {
         entity.setStatus(status);
         entity.setTimestamp(Instant.now());
 
-        return messageRepository.save(entity);
+        return persist(entity);
     }
 
     // ✅ RABBITMQ MESAJ SAKLAMA
@@ -80,12 +122,38 @@ public class MessageServiceImpl implements MessageService {
         entity.setStatus(status);
         entity.setTimestamp(Instant.now());
 
-        return messageRepository.save(entity);
+        return persist(entity);
     }
 
     // ✅ WEBSOCKET MESAJ SAKLAMA
     @Override
     public MessageEntity saveWebSocketMessage(WebSocketSendDto dto, MessageStatus status) {
+        return persist(toWebSocketEntity(dto, status));
+    }
+
+    // ✅ TOPLU WEBSOCKET MESAJ SAKLAMA
+    @Override
+    public List<MessageEntity> saveWebSocketMessages(List<WebSocketSendDto> dtos,
+                                                     List<WebSocketSender.WebSocketSendResult> results) {
+        List<MessageEntity> entities = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            WebSocketSender.WebSocketSendResult result = results.get(i);
+            MessageEntity entity = toWebSocketEntity(dtos.get(i),
+                    result.isSuccess() ? MessageStatus.DELIVERED : MessageStatus.FAILED);
+            if (!result.isSuccess()) {
+                String originalBody = entity.getBody() != null ? entity.getBody() : "";
+                entity.setBody(String.format("%s\n\n❌ WEBSOCKET ERROR: %s", originalBody, result.getErrorMessage()));
+            }
+            if (!messageBodyStore.store(entity)) {
+                messageBodyCompressor.compress(entity);
+            }
+            entities.add(entity);
+        }
+        insertAll(entities);
+        return entities;
+    }
+
+    private MessageEntity toWebSocketEntity(WebSocketSendDto dto, MessageStatus status) {
         MessageEntity entity = new MessageEntity();
 
         // WebSocket mesajını HTTP-benzeri kanonik forma map'le
@@ -114,13 +182,13 @@ public class MessageServiceImpl implements MessageService {
         entity.setStatus(status);
         entity.setTimestamp(Instant.now());
 
-        return messageRepository.save(entity);
+        return entity;
     }
 
     // ✅ ENTITY GÜNCELLEME
     @Override
     public MessageEntity updateMessage(MessageEntity entity) {
-        return messageRepository.save(entity);
+        return persist(entity);
     }
 
     @Override
@@ -131,7 +199,37 @@ public class MessageServiceImpl implements MessageService {
         return messageRepository.save(entity);
     }
 
+    @Override
+    public MessageEntity completeRestMessage(Long id, MessageStatus status, HttpRelaySender.HttpRelayResult result) {
+        MessageEntity entity = messageRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Mesaj bulunamadı: " + id));
+        entity.setStatus(status);
+        entity.setCompletedAt(Instant.now());
+
+        if (result != null) {
+            entity.setResponseStatus(result.getStatusCode() > 0 ? result.getStatusCode() : null);
+            entity.setResponseBody(result.getResponseBody());
+            entity.setResponseSize(result.getResponseSize());
+            entity.setResponseHash(result.getResponseHash());
+            entity.setFailureReason(result.getFailureReason());
+            entity.setCacheStatus(result.getCacheStatus());
+
+            // Hata varsa body'e error detayını da ekle
+            if (!result.isSuccess() && result.getErrorMessage() != null) {
+                String originalBody = entity.getBody() != null ? entity.getBody() : "";
+                entity.setBody(String.format("%s\n\nERROR: %s\nRESPONSE: %s",
+                        originalBody, result.getErrorMessage(), result.getResponseBody()));
+            }
+        }
+        return persist(entity);
+    }
+
     // ✅ TEMEL LİSTELEME METHODLARI
+    @Override
+    public Optional<MessageEntity> findMessage(Long id) {
+        return messageRepository.findById(id);
+    }
+
     @Override
     public Page<MessageEntity> getAllMessages(Pageable pageable) {
         return messageRepository.findAll(pageable);
@@ -148,6 +246,37 @@ public class MessageServiceImpl implements MessageService {
         }
     }
 
+    // ✅ ARAMA
+    @Override
+    public Page<MessageEntity> searchMessages(MessageSearchCriteria criteria, Pageable pageable) {
+        return messageRepository.search(criteria, pageable);
+    }
+
+    // ✅ EXPORT
+    @Override
+    @Transactional(readOnly = true)
+    public long exportMessages(ProtocolType protocol, MessageStatus status, Instant from, Instant to,
+                               OutputStream out) throws IOException {
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : Instant.now();
+
+        long count = 0;
+        try (Stream<MessageEntity> stream = messageRepository.streamForExport(start, end, protocol, status)) {
+            Iterator<MessageEntity> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        return count;
+    }
+
     // ✅ İSTATİSTİKLER
     @Override
     public Map<String, Object> getMessageStatistics() {
@@ -161,10 +290,72 @@ public class MessageServiceImpl implements MessageService {
     // ✅ YÖNETİM
     @Override
     public void deleteAllMessages() {
+        // Fan-out deneme satırları silinen mesajlara işaret etmeye devam etmesin
+        jdbcTemplate.update("DELETE FROM relay_attempts");
         messageRepository.deleteAll();
+        messageBodyStore.deleteOrphans();
     }
 
     // 🔧 HELPER METHODLAR (Basitleştirilmiş)
+
+    // Kaydetmeden önce gövdeyi depoya taşı (dedup) veya inline sıkıştır
+    private MessageEntity persist(MessageEntity entity) {
+        if (!messageBodyStore.store(entity)) {
+            messageBodyCompressor.compress(entity);
+        }
+        return messageRepository.save(entity);
+    }
+
+    /**
+     * Entity'leri tek JDBC batch'inde yazar ve üretilen id'leri geri koyar.
+     * IDENTITY id'lerde Hibernate insert'leri batch'lemediği için JPA yerine doğrudan JDBC kullanılır.
+     */
+    private void insertAll(List<MessageEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        List<String> headers = new ArrayList<>(entities.size());
+        for (MessageEntity entity : entities) {
+            try {
+                headers.add(entity.getHeaders() != null ? objectMapper.writeValueAsString(entity.getHeaders()) : null);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Mesaj header'ları serialize edilemedi: " + e.getMessage(), e);
+            }
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(BATCH_INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        MessageEntity entity = entities.get(i);
+                        ps.setString(1, entity.getMethod());
+                        ps.setString(2, entity.getUrl());
+                        ps.setString(3, entity.getVersion());
+                        ps.setObject(4, headers.get(i), Types.OTHER);
+                        ps.setString(5, entity.getInlineBody());
+                        ps.setBytes(6, entity.getBodyCompressed());
+                        ps.setString(7, entity.getBodyCodec() != null ? entity.getBodyCodec().name() : null);
+                        ps.setString(8, entity.getBodyHash());
+                        ps.setString(9, entity.getSender());
+                        ps.setString(10, entity.getGroupId());
+                        ps.setString(11, entity.getProtocol().name());
+                        ps.setString(12, entity.getStatus().name());
+                        ps.setObject(13, OffsetDateTime.ofInstant(entity.getTimestamp(), ZoneOffset.UTC));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entities.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < entities.size() && i < keys.size(); i++) {
+            entities.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+    }
+
     private String extractUrlFromHeaders(Map<String, String> headers) {
         if (headers == null) return null;
         return headers.get("url");
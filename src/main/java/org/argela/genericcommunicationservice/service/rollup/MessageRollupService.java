@@ -0,0 +1,233 @@
+package org.argela.genericcommunicationservice.service.rollup;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.entity.MessageRollupEntity;
+import org.argela.genericcommunicationservice.enums.MessageStatus;
+import org.argela.genericcommunicationservice.enums.ProtocolType;
+import org.argela.genericcommunicationservice.repository.MessageRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Dakikalık throughput/latency rollup servisi.
+ * Mesaj sonuçları bellekte (protokol, hedef, status, dakika) anahtarıyla biriktirilir,
+ * periyodik olarak message_rollups tablosuna tek bir batch upsert ile yazılır.
+ * Böylece kapasite planlama sorguları ham messages tablosunu taramaz.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageRollupService {
+
+    // Histogram kova üst sınırları (ms) - son kova: > 5000ms
+    private static final long[] LATENCY_BOUNDS_MS = {10, 50, 100, 250, 1000, 5000};
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO message_rollups (bucket_start, protocol, target, status,
+                                         message_count, latency_sum_ms, latency_max_ms,
+                                         latency_le_10ms, latency_le_50ms, latency_le_100ms, latency_le_250ms,
+                                         latency_le_1000ms, latency_le_5000ms, latency_gt_5000ms)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (bucket_start, protocol, target, status) DO UPDATE SET
+                message_count = message_rollups.message_count + EXCLUDED.message_count,
+                latency_sum_ms = message_rollups.latency_sum_ms + EXCLUDED.latency_sum_ms,
+                latency_max_ms = GREATEST(message_rollups.latency_max_ms, EXCLUDED.latency_max_ms),
+                latency_le_10ms = message_rollups.latency_le_10ms + EXCLUDED.latency_le_10ms,
+                latency_le_50ms = message_rollups.latency_le_50ms + EXCLUDED.latency_le_50ms,
+                latency_le_100ms = message_rollups.latency_le_100ms + EXCLUDED.latency_le_100ms,
+                latency_le_250ms = message_rollups.latency_le_250ms + EXCLUDED.latency_le_250ms,
+                latency_le_1000ms = message_rollups.latency_le_1000ms + EXCLUDED.latency_le_1000ms,
+                latency_le_5000ms = message_rollups.latency_le_5000ms + EXCLUDED.latency_le_5000ms,
+                latency_gt_5000ms = message_rollups.latency_gt_5000ms + EXCLUDED.latency_gt_5000ms
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageRollupRepository messageRollupRepository;
+
+    @Value("${app.rollup.enabled:true}")
+    private boolean enabled;
+
+    // record() read lock alır, flush() write lock ile map'i değiştirir - flush sırasında kayıp olmaz
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentHashMap<RollupKey, RollupBucket> buckets = new ConcurrentHashMap<>();
+
+    // =============== KAYIT ===============
+
+    /**
+     * Tek bir mesaj sonucunu ilgili dakikalık kovaya ekler (sadece bellek).
+     */
+    public void record(ProtocolType protocol, String target, MessageStatus status, long latencyMs) {
+        if (!enabled || protocol == null || status == null) {
+            return;
+        }
+
+        RollupKey key = new RollupKey(
+                Instant.now().truncatedTo(ChronoUnit.MINUTES),
+                protocol,
+                target != null && !target.isBlank() ? target : "unknown",
+                status
+        );
+
+        swapLock.readLock().lock();
+        try {
+            buckets.computeIfAbsent(key, k -> new RollupBucket()).add(Math.max(0, latencyMs));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // =============== FLUSH ===============
+
+    /**
+     * Biriken kovaları tabloya yazar. Aynı anahtar için değerler upsert ile toplanır.
+     */
+    @Scheduled(fixedDelayString = "${app.rollup.flush-interval-ms:10000}")
+    public void flush() {
+        Map<RollupKey, RollupBucket> snapshot;
+
+        swapLock.writeLock().lock();
+        try {
+            if (buckets.isEmpty()) {
+                return;
+            }
+            snapshot = buckets;
+            buckets = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        List<Object[]> rows = new ArrayList<>(snapshot.size());
+        snapshot.forEach((key, bucket) -> rows.add(bucket.toRow(key)));
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            log.debug("📊 {} rollup kovası yazıldı", rows.size());
+        } catch (Exception e) {
+            log.error("❌ Rollup flush hatası, {} kova geri alınıyor: {}", rows.size(), e.getMessage());
+            requeue(snapshot);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // =============== SORGU ===============
+
+    /**
+     * Zaman aralığındaki rollup satırlarını döndürür. from/to boşsa son 24 saat.
+     */
+    public List<MessageRollupEntity> query(Instant from, Instant to, ProtocolType protocol,
+                                           String target, MessageStatus status) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(24, ChronoUnit.HOURS);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' değeri 'to' değerinden önce olmalı");
+        }
+        return messageRollupRepository.findInRange(start, end, protocol, target, status);
+    }
+
+    /**
+     * REST relay'leri için hedef: URL'in host[:port] kısmı
+     */
+    public static String targetOfUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            if (uri.getHost() == null) {
+                return null;
+            }
+            return uri.getPort() > 0 ? uri.getHost() + ":" + uri.getPort() : uri.getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Yazılamayan kovaları bir sonraki flush'a geri ekle
+    private void requeue(Map<RollupKey, RollupBucket> snapshot) {
+        swapLock.readLock().lock();
+        try {
+            snapshot.forEach((key, bucket) -> buckets.merge(key, bucket, RollupBucket::mergeFrom));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // =============== İÇ SINIFLAR ===============
+
+    private record RollupKey(Instant bucketStart, ProtocolType protocol, String target, MessageStatus status) {
+    }
+
+    private static final class RollupBucket {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder latencySum = new LongAdder();
+        private final LongAccumulator latencyMax = new LongAccumulator(Long::max, 0L);
+        private final LongAdder[] histogram = new LongAdder[LATENCY_BOUNDS_MS.length + 1];
+
+        private RollupBucket() {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        private void add(long latencyMs) {
+            count.increment();
+            latencySum.add(latencyMs);
+            latencyMax.accumulate(latencyMs);
+
+            int index = LATENCY_BOUNDS_MS.length;
+            for (int i = 0; i < LATENCY_BOUNDS_MS.length; i++) {
+                if (latencyMs <= LATENCY_BOUNDS_MS[i]) {
+                    index = i;
+                    break;
+                }
+            }
+            histogram[index].increment();
+        }
+
+        private RollupBucket mergeFrom(RollupBucket other) {
+            count.add(other.count.sum());
+            latencySum.add(other.latencySum.sum());
+            latencyMax.accumulate(other.latencyMax.get());
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i].add(other.histogram[i].sum());
+            }
+            return this;
+        }
+
+        private Object[] toRow(RollupKey key) {
+            Object[] row = new Object[7 + histogram.length];
+            row[0] = OffsetDateTime.ofInstant(key.bucketStart(), ZoneOffset.UTC);
+            row[1] = key.protocol().name();
+            row[2] = key.target();
+            row[3] = key.status().name();
+            row[4] = count.sum();
+            row[5] = latencySum.sum();
+            row[6] = latencyMax.get();
+            for (int i = 0; i < histogram.length; i++) {
+                row[7 + i] = histogram[i].sum();
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.argela.genericcommunicationservice.service.storage;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.entity.MessageEntity;
+import org.argela.genericcommunicationservice.enums.BodyCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Mesaj gövdesi sıkıştırma.
+ * Eşik değerini aşan gövdeler kaydedilmeden önce bytea kolonuna codec işaretiyle sıkıştırılır.
+ * Açma işlemi MessageEntity.getBody() ilk çağrıldığında (lazy) yapılır.
+ */
+@Slf4j
+@Component
+public class MessageBodyCompressor {
+
+    @Value("${app.storage.compression.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.storage.compression.threshold-bytes:1024}")
+    private int thresholdBytes;
+
+    @Value("${app.storage.compression.level:6}")
+    private int level;
+
+    @Getter
+    private final BodyCodec codec = BodyCodec.DEFLATE;
+
+    /**
+     * Entity'deki sıkıştırılmamış gövdeyi eşik üstündeyse sıkıştırır.
+     * Sıkıştırma kazanç sağlamıyorsa gövde olduğu gibi bırakılır.
+     */
+    public void compress(MessageEntity entity) {
+        String body = entity.getInlineBody();
+        if (body == null) {
+            return;
+        }
+
+        byte[] compressed = compressIfWorthwhile(body, body.getBytes(StandardCharsets.UTF_8).length);
+        if (compressed != null) {
+            entity.storeCompressedBody(codec, compressed);
+        }
+    }
+
+    /**
+     * Gövdeyi sıkıştırır; kapalıysa, eşik altındaysa veya kazanç yoksa null döner.
+     */
+    public byte[] compressIfWorthwhile(String body, int plainSize) {
+        if (!enabled || plainSize < thresholdBytes) {
+            return null;
+        }
+
+        byte[] compressed = codec.encode(body, level);
+        if (compressed.length >= plainSize) {
+            log.debug("Gövde sıkıştırma kazanç sağlamadı: {} -> {} byte", plainSize, compressed.length);
+            return null;
+        }
+
+        log.debug("🗜️ Gövde sıkıştırıldı: {} -> {} byte ({})", plainSize, compressed.length, codec);
+        return compressed;
+    }
+}
@@ -0,0 +1,134 @@
+package org.argela.genericcommunicationservice.service.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.entity.MessageEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * İçerik adresli gövde deposu.
+ * Gövde SHA-256 ile anahtarlanıp message_bodies tablosuna bir kez yazılır, mesaj satırı sadece hash'i tutar.
+ * Yakın zamanda yazılan hash'ler küçük bir LRU cache'te tutulur; cache'teki hash'ler için DB'ye gidilmez.
+ *
+ * Gövde, mesaj satırından önce ve ayrı transaction'da yazılır. Sahipsiz gövde temizliği bu yüzden sadece
+ * referenced_at'i orphan-grace-ms'den eski gövdeleri siler: store() her DB yazımında referenced_at'i yeniler ve
+ * cache'teki bir hash'i en fazla grace'in yarısı kadar süre DB'ye gitmeden kullanır. Böylece yazılmış ama mesajı
+ * henüz commit edilmemiş (veya cache sayesinde hiç DB'ye gidilmemiş) bir gövde temizlikte silinmez.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageBodyStore {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO message_bodies (hash, body, body_compressed, body_codec, size_bytes, created_at, referenced_at)
+            VALUES (?, ?, ?, ?, ?, now(), now())
+            ON CONFLICT (hash) DO UPDATE SET referenced_at = now()
+            """;
+
+    private static final String DELETE_ORPHANS_SQL = """
+            DELETE FROM message_bodies b
+            WHERE COALESCE(b.referenced_at, b.created_at) < now() - (? * interval '1 millisecond')
+              AND NOT EXISTS (SELECT 1 FROM messages m WHERE m.body_hash = b.hash)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageBodyCompressor messageBodyCompressor;
+
+    @Value("${app.storage.dedup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.storage.dedup.min-bytes:256}")
+    private int minBytes;
+
+    @Value("${app.storage.dedup.hot-cache-size:10000}")
+    private int hotCacheSize;
+
+    // Yazılan gövdenin mesaj satırı bu süre içinde commit edilmiş olmalı; daha yeni gövdeler temizlikte silinmez
+    @Value("${app.storage.dedup.orphan-grace-ms:600000}")
+    private long orphanGraceMs;
+
+    // hash -> referenced_at'in en son yenilendiği an (epoch ms)
+    private Map<String, Long> hotHashes;
+
+    @PostConstruct
+    void init() {
+        this.hotHashes = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > hotCacheSize;
+            }
+        });
+    }
+
+    /**
+     * Entity'nin inline gövdesini depoya taşır ve entity'ye hash referansı koyar.
+     *
+     * @return gövde depoya taşındıysa true (false ise çağıran inline saklamaya devam eder)
+     */
+    public boolean store(MessageEntity entity) {
+        String body = entity.getInlineBody();
+        if (!enabled || body == null) {
+            return false;
+        }
+
+        byte[] utf8 = body.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length < minBytes) {
+            return false;
+        }
+
+        String hash = sha256Hex(utf8);
+        long now = System.currentTimeMillis();
+        Long touchedAt = hotHashes.get(hash);
+        if (touchedAt == null || now - touchedAt > orphanGraceMs / 2) {
+            byte[] compressed = messageBodyCompressor.compressIfWorthwhile(body, utf8.length);
+            int inserted = jdbcTemplate.update(INSERT_SQL, ps -> {
+                ps.setString(1, hash);
+                if (compressed != null) {
+                    ps.setNull(2, Types.VARCHAR);
+                    ps.setBytes(3, compressed);
+                    ps.setString(4, messageBodyCompressor.getCodec().name());
+                } else {
+                    ps.setString(2, body);
+                    ps.setNull(3, Types.BINARY);
+                    ps.setNull(4, Types.VARCHAR);
+                }
+                ps.setInt(5, utf8.length);
+            });
+            hotHashes.put(hash, now);
+            log.debug("📦 Gövde deposu: hash={} yazıldı/yenilendi ({})", hash, inserted);
+        }
+
+        entity.storeBodyReference(hash);
+        return true;
+    }
+
+    /**
+     * Hiçbir mesajın referans etmediği ve orphan-grace-ms'den uzun süredir referans alınmamış gövdeleri siler.
+     */
+    public int deleteOrphans() {
+        int deleted = jdbcTemplate.update(DELETE_ORPHANS_SQL, orphanGraceMs);
+        log.info("🗑️ {} sahipsiz mesaj gövdesi silindi", deleted);
+        return deleted;
+    }
+
+    private static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 desteklenmiyor", e);
+        }
+    }
+}
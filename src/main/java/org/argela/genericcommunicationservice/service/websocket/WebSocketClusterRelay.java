@@ -0,0 +1,174 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.enums.PayloadEncoding;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket frame'lerini RabbitMQ fanout exchange'i üzerinden diğer replikalara taşır.
+ * Yayınlayan node kendi session'larına doğrudan gönderir ve frame'i exchange'e bırakır; diğer node'lar
+ * frame'i kendi yerel broker'larına iletir (kendi gönderdiğini atlar). User destination'larda her node
+ * hedefi yerel SimpUserRegistry ile çözer, böylece kullanıcı hangi node'a bağlıysa oradan alır.
+ * Frame gövdesi zaten serialize edilmiş byte'lardır (encoding content-type'ta); AMQP mesajına olduğu gibi konur,
+ * routing bilgisi header'dadır.
+ * Yayın çağıranın thread'inde yapılmaz: frame sınırlı bir kuyruğa bırakılır, tek bir thread sırayla (confirm
+ * beklemeden) exchange'e gönderir. Broker yavaş veya erişilemezken yerel teslim beklemez; kuyruk doluysa
+ * frame diğer node'lara gönderilmeden düşürülür (websocket.cluster.frames{direction=out,result=dropped}).
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.websocket.cluster.enabled", havingValue = "true")
+public class WebSocketClusterRelay {
+
+    private static final String ORIGIN_HEADER = "x-gcs-origin";
+    private static final String DESTINATION_HEADER = "x-gcs-destination";
+    private static final String USER_HEADER = "x-gcs-user";
+
+    // Bu node'un kimliği - kendi yayınladığı frame'i tekrar göndermemek için
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final WebSocketReplayBuffer webSocketReplayBuffer;
+    private final RabbitTemplate rabbitTemplate;
+    private final Counter published;
+    private final Counter publishFailed;
+    private final Counter publishDropped;
+    private final Counter received;
+    private final ArrayBlockingQueue<Runnable> pending;
+    private final ThreadPoolExecutor publisher;
+
+    @Value("${app.websocket.cluster.exchange:gcs.websocket.fanout}")
+    private String exchangeName;
+
+    @Value("${app.websocket.cluster.publish-timeout-ms:2000}")
+    private long publishTimeoutMs;
+
+    public WebSocketClusterRelay(SimpMessagingTemplate simpMessagingTemplate,
+                                 WebSocketReplayBuffer webSocketReplayBuffer,
+                                 @Qualifier("webSocketClusterPublisherConnectionFactory") ConnectionFactory connectionFactory,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.websocket.cluster.max-pending:10000}") int maxPending) {
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.webSocketReplayBuffer = webSocketReplayBuffer;
+        this.rabbitTemplate = new RabbitTemplate(connectionFactory);
+        this.published = clusterCounter(meterRegistry, "out", "success");
+        this.publishFailed = clusterCounter(meterRegistry, "out", "failure");
+        this.publishDropped = clusterCounter(meterRegistry, "out", "dropped");
+        this.received = clusterCounter(meterRegistry, "in", "success");
+
+        // Tek thread: frame'ler diğer node'lara yayınlandıkları sırayla gider
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, maxPending));
+        this.publisher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, pending,
+                Thread.ofPlatform().name("ws-cluster-publish").daemon(true).factory());
+        Gauge.builder("websocket.cluster.pending", pending, ArrayBlockingQueue::size)
+                .description("Diğer node'lara yayınlanmayı bekleyen WebSocket frame'leri")
+                .register(meterRegistry);
+        log.info("✅ WebSocket cluster fan-out aktif - node: {}", nodeId);
+    }
+
+    /**
+     * Yerelde gönderilmiş frame'i diğer node'lara yayınlanmak üzere kuyruğa bırakır; beklemez.
+     * Kuyruk doluysa veya yayın başarısızsa yerel teslim etkilenmez, sadece sayılır ve loglanır.
+     *
+     * @param user user-specific mesajlarda hedef kullanıcı, aksi halde null
+     */
+    public void publish(String destination, String user, byte[] frame, PayloadEncoding encoding) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(encoding.getMimeType().toString());
+        properties.setHeader(ORIGIN_HEADER, nodeId);
+        properties.setHeader(DESTINATION_HEADER, destination);
+        if (user != null) {
+            properties.setHeader(USER_HEADER, user);
+        }
+        Message message = new Message(frame, properties);
+        try {
+            publisher.execute(() -> send(destination, message));
+        } catch (RejectedExecutionException e) {
+            publishDropped.increment();
+            log.debug("WebSocket cluster yayın kuyruğu dolu, frame düşürüldü: {}", destination);
+        }
+    }
+
+    private void send(String destination, Message message) {
+        try {
+            rabbitTemplate.send(exchangeName, "", message);
+            published.increment();
+        } catch (Exception e) {
+            publishFailed.increment();
+            log.warn("⚠️ WebSocket frame diğer node'lara yayınlanamadı: {} -> {}", destination, e.getMessage());
+        }
+    }
+
+    @RabbitListener(queues = "#{webSocketClusterQueue.name}")
+    public void onFrame(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        if (nodeId.equals(properties.getHeader(ORIGIN_HEADER))) {
+            return;
+        }
+        String destination = properties.getHeader(DESTINATION_HEADER);
+        if (destination == null) {
+            log.warn("⚠️ Destination'sız cluster frame atlandı");
+            return;
+        }
+        received.increment();
+        String user = properties.getHeader(USER_HEADER);
+        PayloadEncoding encoding = PayloadEncoding.fromContentType(properties.getContentType());
+        // Seq node'a özeldir - diğer node'dan gelen frame de yerel buffer'da kendi sırasını alır
+        if (user == null) {
+            webSocketReplayBuffer.recordAndSend(destination, message.getBody(), encoding,
+                    seq -> WebSocketFrames.deliverLocal(simpMessagingTemplate, destination, null, message.getBody(), encoding, seq));
+        } else {
+            WebSocketFrames.deliverLocal(simpMessagingTemplate, destination, user, message.getBody(), encoding, 0);
+        }
+        log.debug("🔁 Cluster frame yerel session'lara iletildi: {} (node={})", destination, properties.getHeader(ORIGIN_HEADER));
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Kuyrukta kalan frame'lere publish-timeout-ms kadar süre tanır, kalanlar gönderilmez
+     */
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdown();
+        try {
+            if (!publisher.awaitTermination(publishTimeoutMs, TimeUnit.MILLISECONDS)) {
+                int dropped = publisher.shutdownNow().size();
+                publishDropped.increment(dropped);
+                log.warn("⚠️ {} WebSocket cluster frame'i yayınlanmadan kapatılıyor", dropped);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            publisher.shutdownNow();
+        }
+    }
+
+    private static Counter clusterCounter(MeterRegistry meterRegistry, String direction, String result) {
+        return Counter.builder("websocket.cluster.frames")
+                .description("Node'lar arası taşınan WebSocket frame'leri")
+                .tag("direction", direction)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
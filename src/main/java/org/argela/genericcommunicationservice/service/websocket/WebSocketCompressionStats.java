@@ -0,0 +1,227 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * Endpoint başına (/ws, /websocket) giden frame byte'ları ve permessage-deflate tasarrufu.
+ * Sıkıştırmayı container (Tomcat) yapar ve sıkıştırılmış boyutu dışarı vermez; bu yüzden "after" tahminidir:
+ * deflate negotiate edilmiş session'larda her N. frame aynı ayarlarla (raw deflate, sync flush) sıkıştırılıp
+ * oran çıkarılır, negotiate edilmemiş session'lar olduğu gibi sayılır. Context takeover açıkken gerçek kazanç
+ * tahminden biraz daha iyidir (tahmin her mesajı bağımsız sıkıştırır).
+ * Metrikler: websocket.frames.bytes{endpoint, stage=before|after}, websocket.compression.ratio{endpoint}
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebSocketCompressionStats implements WebSocketHandlerDecoratorFactory {
+
+    public static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    // permessage-deflate her mesajın sonundaki 0x00 0x00 0xff 0xff'yi göndermez (RFC 7692)
+    private static final int SYNC_FLUSH_TAIL = 4;
+
+    private final MeterRegistry meterRegistry;
+
+    // Negotiate edilmiş session'larda kaç frame'de bir deflate ile ölçüm yapılacağı
+    @Value("${app.websocket.compression.sample-every:50}")
+    private int sampleEvery;
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                EndpointStats stats = statsFor(session);
+                boolean compressed = isCompressed(session);
+                stats.sessions.incrementAndGet();
+                if (compressed) {
+                    stats.compressedSessions.incrementAndGet();
+                }
+                super.afterConnectionEstablished(new MeteredSession(session, stats, compressed));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                EndpointStats stats = statsFor(session);
+                stats.sessions.decrementAndGet();
+                if (isCompressed(session)) {
+                    stats.compressedSessions.decrementAndGet();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Endpoint başına byte ve session sayıları (/websockets/stats için)
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    EndpointStats stats = entry.getValue();
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    values.put("sessions", stats.sessions.get());
+                    values.put("compressedSessions", stats.compressedSessions.get());
+                    values.put("bytesBefore", stats.bytesBefore.sum());
+                    values.put("bytesAfterEstimated", (long) stats.estimatedBytesAfter());
+                    values.put("ratio", stats.ratio());
+                    snapshot.put(entry.getKey(), values);
+                });
+        return snapshot;
+    }
+
+    private EndpointStats statsFor(WebSocketSession session) {
+        return endpoints.computeIfAbsent(endpointOf(session), this::registerEndpoint);
+    }
+
+    private EndpointStats registerEndpoint(String endpoint) {
+        EndpointStats stats = new EndpointStats();
+        FunctionCounter.builder("websocket.frames.bytes", stats, s -> s.bytesBefore.sum())
+                .description("Client'a giden frame byte'ları (sıkıştırma öncesi)")
+                .tag("endpoint", endpoint)
+                .tag("stage", "before")
+                .register(meterRegistry);
+        FunctionCounter.builder("websocket.frames.bytes", stats, EndpointStats::estimatedBytesAfter)
+                .description("Client'a giden frame byte'ları (permessage-deflate sonrası, örneklemeyle tahmini)")
+                .tag("endpoint", endpoint)
+                .tag("stage", "after")
+                .register(meterRegistry);
+        Gauge.builder("websocket.compression.ratio", stats, EndpointStats::ratio)
+                .description("Negotiate edilmiş session'larda sıkıştırılmış / ham byte oranı")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return stats;
+    }
+
+    // SockJS alt path'leri (/ws/{server}/{session}/websocket) /ws olarak sayılır
+    private static String endpointOf(WebSocketSession session) {
+        String path = session.getUri() != null ? session.getUri().getPath() : null;
+        if (path == null || path.length() < 2) {
+            return "unknown";
+        }
+        int end = path.indexOf('/', 1);
+        return end > 0 ? path.substring(0, end) : path;
+    }
+
+    private static boolean isCompressed(WebSocketSession session) {
+        try {
+            for (WebSocketExtension extension : session.getExtensions()) {
+                if (PERMESSAGE_DEFLATE.equalsIgnoreCase(extension.getName())) {
+                    return true;
+                }
+            }
+        } catch (UnsupportedOperationException e) {
+            // HTTP transport'lu SockJS session'ları extension desteklemez
+        }
+        return false;
+    }
+
+    private static int deflatedSize(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(payload);
+            byte[] buffer = new byte[Math.max(64, payload.length)];
+            int size = 0;
+            int written;
+            do {
+                written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                size += written;
+            } while (written == buffer.length);
+            return Math.max(1, size - SYNC_FLUSH_TAIL);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] bytesOf(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage text) {
+            return text.asBytes();
+        }
+        if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload().duplicate();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            return bytes;
+        }
+        return null;
+    }
+
+    // =============== İÇ SINIFLAR ===============
+
+    private static final class EndpointStats {
+        private final AtomicLong sessions = new AtomicLong();
+        private final AtomicLong compressedSessions = new AtomicLong();
+        private final AtomicLong compressedFrames = new AtomicLong();
+        private final LongAdder bytesBefore = new LongAdder();
+        private final LongAdder compressedBytesBefore = new LongAdder();
+        private final LongAdder sampledBytes = new LongAdder();
+        private final LongAdder sampledDeflatedBytes = new LongAdder();
+
+        private double ratio() {
+            long sampled = sampledBytes.sum();
+            return sampled > 0 ? (double) sampledDeflatedBytes.sum() / sampled : 1.0;
+        }
+
+        private double estimatedBytesAfter() {
+            long compressed = compressedBytesBefore.sum();
+            return bytesBefore.sum() - compressed + compressed * ratio();
+        }
+    }
+
+    private final class MeteredSession extends WebSocketSessionDecorator {
+        private final EndpointStats stats;
+        private final boolean compressed;
+
+        private MeteredSession(WebSocketSession session, EndpointStats stats, boolean compressed) {
+            super(session);
+            this.stats = stats;
+            this.compressed = compressed;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            int length = message.getPayloadLength();
+            stats.bytesBefore.add(length);
+            if (compressed) {
+                stats.compressedBytesBefore.add(length);
+                if (stats.compressedFrames.incrementAndGet() % Math.max(1, sampleEvery) == 0) {
+                    byte[] payload = bytesOf(message);
+                    if (payload != null && payload.length > 0) {
+                        stats.sampledBytes.add(payload.length);
+                        stats.sampledDeflatedBytes.add(deflatedSize(payload));
+                    }
+                }
+            }
+            super.sendMessage(message);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Yavaş abonelere latest-value conflation.
+ * Fiyat/durum gibi destination'larda sadece en son değer önemlidir: session'a giden mesajlar beklerken (client yavaşken)
+ * gelen değer, aynı aboneliğin session kuyruğunda bekleyen değerinin yerine geçer (abonelik başına tek slot,
+ * kuyruktaki yeri korunur). Bekletme, sıra ve limitler WebSocketSlowConsumers'ın session kuyruğundadır;
+ * bu sınıf hangi destination'ların conflate edileceğine karar verir ve sayaçları tutar.
+ *
+ * Hangi destination'ların conflate edileceği: app.websocket.conflation.destinations (tüm websocket'ler) ve
+ * websocket'in connectionParams.conflate listesi (Ant pattern, örn. /topic/prices/**).
+ * Metrikler: websocket.conflation.messages{result=deferred|merged|dropped}, websocket.conflation.pending
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebSocketConflation {
+
+    private final WebSocketSessionRegistry webSocketSessionRegistry;
+    private final MeterRegistry meterRegistry;
+
+    // Virgülle ayrılmış Ant pattern'leri; boşsa sadece connectionParams.conflate geçerli
+    @Value("${app.websocket.conflation.destinations:}")
+    private String destinations;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    // Session kuyruklarında slotta bekleyen mesaj sayısı
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private List<String> globalPatterns = List.of();
+
+    private Counter deferred;
+    private Counter merged;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        globalPatterns = Arrays.stream(destinations.split(","))
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .toList();
+
+        deferred = conflationCounter("deferred", "Client yavaşken session kuyruğunda slotta bekletilen mesajlar");
+        merged = conflationCounter("merged", "Slotta bekleyen eski değerin yerine geçen mesajlar (eski değer gönderilmez)");
+        dropped = conflationCounter("dropped", "Session kapandığı veya kuyruk limiti aşıldığı için slotta kalan, gönderilmeyen mesajlar");
+        Gauge.builder("websocket.conflation.pending", pending, AtomicInteger::get)
+                .description("Conflation slotlarında bekleyen mesaj sayısı")
+                .register(meterRegistry);
+
+        if (!globalPatterns.isEmpty()) {
+            log.info("✅ WebSocket conflation destination'ları: {}", globalPatterns);
+        }
+    }
+
+    // =============== KARAR ===============
+
+    /**
+     * MESSAGE'ın destination'ı (user destination'larda orijinali) conflate edilen bir pattern'e uyuyor mu
+     */
+    public boolean conflates(MessageHeaders headers) {
+        Object original = headers.get(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+        String destination = original instanceof String ? (String) original : SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null) {
+            return false;
+        }
+        if (matches(globalPatterns, destination)) {
+            return true;
+        }
+        List<String> patterns = webSocketSessionRegistry.conflatedDestinations(SimpMessageHeaderAccessor.getSessionId(headers));
+        return matches(patterns, destination);
+    }
+
+    private boolean matches(List<String> patterns, String destination) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, destination)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // =============== SLOT SAYAÇLARI (session kuyruğu bildirir) ===============
+
+    void onDeferred() {
+        deferred.increment();
+        pending.incrementAndGet();
+    }
+
+    void onMerged() {
+        merged.increment();
+    }
+
+    void onReleased() {
+        pending.decrementAndGet();
+    }
+
+    void onDropped(int count) {
+        if (count > 0) {
+            dropped.increment(count);
+            pending.addAndGet(-count);
+        }
+    }
+
+    /**
+     * Conflation sayaçları (/websockets/stats için)
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("destinations", globalPatterns);
+        snapshot.put("pending", pending.get());
+        snapshot.put("deferred", (long) deferred.count());
+        snapshot.put("merged", (long) merged.count());
+        snapshot.put("dropped", (long) dropped.count());
+        return snapshot;
+    }
+
+    private Counter conflationCounter(String result, String description) {
+        return Counter.builder("websocket.conflation.messages")
+                .description(description)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,49 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import org.argela.genericcommunicationservice.enums.PayloadEncoding;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.StringUtils;
+
+/**
+ * Önceden serialize edilmiş frame'lerin (JSON veya binary encoding) yerel broker'a gönderimi.
+ * Payload byte[] olarak bir kez üretilir; MessageConverter'dan geçmez, destination'ın tüm abonelerine aynı dizi gider.
+ */
+final class WebSocketFrames {
+
+    private WebSocketFrames() {
+    }
+
+    /**
+     * Frame'i yerel broker'a gönderir
+     *
+     * @param user user-specific gönderimde kullanıcı, aksi halde null
+     * @param seq  replay buffer sıra numarası ('seq' header'ı), 0 ise header eklenmez
+     */
+    static void deliverLocal(SimpMessagingTemplate template, String destination, String user,
+                             byte[] payload, PayloadEncoding encoding, long seq) {
+        String target = user != null ? userDestination(template, user, destination) : destination;
+        template.send(target, frame(payload, encoding, seq));
+    }
+
+    // SimpMessagingTemplate.convertAndSendToUser ile aynı hedef biçimi: /user/{user}/destination
+    static String userDestination(SimpMessagingTemplate template, String user, String destination) {
+        String prefix = template.getUserDestinationPrefix();
+        String path = destination.startsWith("/") ? destination : "/" + destination;
+        return prefix + StringUtils.replace(user, "/", "%2F") + path;
+    }
+
+    private static Message<byte[]> frame(byte[] payload, PayloadEncoding encoding, long seq) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(encoding.getMimeType());
+        if (seq > 0) {
+            accessor.setNativeHeader(WebSocketReplayBuffer.SEQ_HEADER, Long.toString(seq));
+        }
+        // Template destination header'ını ekleyebilsin diye mutable bırakılır
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
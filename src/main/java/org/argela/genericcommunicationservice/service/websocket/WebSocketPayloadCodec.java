@@ -0,0 +1,246 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.enums.PayloadEncoding;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebSocket payload encoding negotiation (JSON / CBOR / Smile / MessagePack).
+ * Client CONNECT'te 'payload-encoding' header'ı gönderirse o session'a giden MESSAGE frame'leri bu encoding'e
+ * çevrilir ve content-type buna göre yazılır. Göndermezse yayıncının seçtiği encoding (WebSocketSendDto.encoding) gider.
+ *
+ * Broker bir yayını tüm abonelere aynı byte[] ile dağıttığından çeviri payload dizisi başına, encoding başına bir kez
+ * yapılır ve aynı yayının diğer abonelerinde tekrar kullanılır (abone başına encode yok).
+ * Binary encoding'li frame'ler binary WebSocket frame olarak gönderilir; SockJS binary frame taşıyamadığından
+ * SockJS session'larına JSON gider.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebSocketPayloadCodec implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    // Client'ın istediği encoding'i bildirdiği CONNECT header'ı
+    public static final String ENCODING_HEADER = "payload-encoding";
+
+    private static final byte[] CONTENT_TYPE_LINE = "\ncontent-type:".getBytes(StandardCharsets.UTF_8);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, SessionCodec> sessions = new ConcurrentHashMap<>();
+
+    // Yayın payload'u (kimlik ile) -> encoding başına çevrilmiş hali; payload GC'lenince düşer
+    private final Map<byte[], Map<PayloadEncoding, byte[]>> encoded = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<PayloadEncoding, Counter> encodeCounters = new EnumMap<>(PayloadEncoding.class);
+    private Counter reused;
+
+    @PostConstruct
+    public void registerMetrics() {
+        for (PayloadEncoding encoding : PayloadEncoding.values()) {
+            encodeCounters.put(encoding, Counter.builder("websocket.payload.encoded")
+                    .description("Abone encoding'ine yapılan payload çevirileri")
+                    .tag("encoding", encoding.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        reused = Counter.builder("websocket.payload.reused")
+                .description("Aynı yayının başka abonesi için önceden çevrilmiş payload'un tekrar kullanımı")
+                .register(meterRegistry);
+    }
+
+    // =============== KANALLAR ===============
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        if (type == SimpMessageType.CONNECT) {
+            negotiate(message);
+            return message;
+        }
+        if (type != SimpMessageType.MESSAGE || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+        SessionCodec session = sessions.get(SimpMessageHeaderAccessor.getSessionId(headers));
+        if (session == null) {
+            return message;
+        }
+
+        PayloadEncoding source = PayloadEncoding.fromContentType(headers.get(MessageHeaders.CONTENT_TYPE));
+        PayloadEncoding target = session.encoding != null ? session.encoding : source;
+        if (target.isBinary() && !session.binaryFrames) {
+            target = PayloadEncoding.JSON;
+        }
+        if (target == source) {
+            return message;
+        }
+
+        byte[] converted;
+        try {
+            converted = encode(payload, source, target);
+        } catch (UncheckedIOException e) {
+            log.warn("⚠️ Payload {} -> {} çevrilemedi, olduğu gibi gönderiliyor: {}", source, target, e.getMessage());
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        accessor.setContentType(target.getMimeType());
+        return MessageBuilder.createMessage(converted, accessor.getMessageHeaders());
+    }
+
+    private void negotiate(Message<?> message) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        String requested = accessor != null ? accessor.getFirstNativeHeader(ENCODING_HEADER) : null;
+        SessionCodec session = requested != null ? sessions.get(accessor.getSessionId()) : null;
+        if (session == null) {
+            return;
+        }
+        try {
+            session.encoding = PayloadEncoding.fromName(requested);
+            log.debug("🔤 Session payload encoding: {} -> {}", accessor.getSessionId(), session.encoding);
+        } catch (IllegalArgumentException e) {
+            log.debug("Bilinmeyen payload-encoding yok sayıldı: {} ({})", requested, accessor.getSessionId());
+        }
+    }
+
+    private byte[] encode(byte[] payload, PayloadEncoding source, PayloadEncoding target) {
+        Map<PayloadEncoding, byte[]> variants;
+        synchronized (encoded) {
+            variants = encoded.computeIfAbsent(payload, p -> new EnumMap<>(PayloadEncoding.class));
+        }
+        synchronized (variants) {
+            byte[] converted = variants.get(target);
+            if (converted != null) {
+                reused.increment();
+                return converted;
+            }
+            converted = target.transcode(payload, source);
+            variants.put(target, converted);
+            encodeCounters.get(target).increment();
+            return converted;
+        }
+    }
+
+    // =============== SESSION ===============
+
+    /**
+     * Session'ın binary frame taşıyıp taşıyamadığını kaydeder ve binary payload'lu STOMP frame'lerini binary frame yapar
+     */
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                // Diğer decorator factory'ler session'ı sarmış olabilir - SockJS kontrolü en içteki session'da yapılır
+                boolean binaryFrames = !(WebSocketSessionDecorator.unwrap(session) instanceof SockJsSession);
+                sessions.put(session.getId(), new SessionCodec(binaryFrames));
+                super.afterConnectionEstablished(binaryFrames ? new BinaryFrameSession(session) : session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // STOMP header bölümündeki content-type binary bir encoding mi (header'lar ile gövde arasında boş satır var)
+    private static boolean hasBinaryContentType(byte[] frame) {
+        int end = headerEnd(frame);
+        for (int i = 0; i + CONTENT_TYPE_LINE.length <= end; i++) {
+            if (regionMatches(frame, i, CONTENT_TYPE_LINE)) {
+                int start = i + CONTENT_TYPE_LINE.length;
+                int stop = start;
+                while (stop < end && frame[stop] != '\n' && frame[stop] != '\r') {
+                    stop++;
+                }
+                return PayloadEncoding.fromContentType(new String(frame, start, stop - start, StandardCharsets.UTF_8)).isBinary();
+            }
+        }
+        return false;
+    }
+
+    private static int headerEnd(byte[] frame) {
+        for (int i = 0; i + 1 < frame.length; i++) {
+            if (frame[i] == '\n' && (frame[i + 1] == '\n' || (frame[i + 1] == '\r' && i + 2 < frame.length && frame[i + 2] == '\n'))) {
+                return i + 1;
+            }
+        }
+        return frame.length;
+    }
+
+    private static boolean regionMatches(byte[] frame, int offset, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (frame[offset + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // =============== İÇ SINIFLAR ===============
+
+    private static final class SessionCodec {
+        private final boolean binaryFrames;
+        // CONNECT'te istenen encoding - yoksa yayıncının encoding'i
+        private volatile PayloadEncoding encoding;
+
+        private SessionCodec(boolean binaryFrames) {
+            this.binaryFrames = binaryFrames;
+        }
+    }
+
+    /**
+     * Spring STOMP handler'ı sadece application/octet-stream'i binary frame olarak gönderir;
+     * CBOR/Smile/MessagePack content-type'lı frame'ler burada binary frame'e çevrilir.
+     */
+    private static final class BinaryFrameSession extends WebSocketSessionDecorator {
+
+        private BinaryFrameSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            if (message instanceof TextMessage text) {
+                byte[] frame = text.asBytes();
+                if (hasBinaryContentType(frame)) {
+                    super.sendMessage(new BinaryMessage(frame, message.isLast()));
+                    return;
+                }
+            }
+            super.sendMessage(message);
+        }
+    }
+}
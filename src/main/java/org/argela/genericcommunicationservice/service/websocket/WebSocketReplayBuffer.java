@@ -0,0 +1,344 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.enums.PayloadEncoding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Destination başına bellekte replay ring buffer'ı.
+ * Topic'e giden her frame node'a özel, artan bir sıra numarası alır ve 'seq' header'ı ile gönderilir.
+ * Kopup geri gelen client SUBSCRIBE'da 'from-seq' (son gördüğü seq) gönderirse, aradaki frame'ler DB'ye gitmeden
+ * buffer'dan tekrar gönderilir ('replay: true'). Aranan frame'ler buffer'dan düşmüşse ilk replay frame'i
+ * (veya client'ın seq'i bu node'dakinden ilerideyse) 'replay-gap: true' taşır; client eksik kısmı /api/v1/websocket/messages'tan tamamlar.
+ * Tekrar gönderilecek frame kalmamışsa gap, gövdesiz ve seq'siz bir 'replay-gap: true' frame'i ile bildirilir.
+ *
+ * TTL boyunca yayın almayan destination'ın buffer'ı bırakılır; sonraki yayında açılan buffer'ın seq'i node'da
+ * verilmiş en büyük seq'ten devam eder, aboneler için seq hiç geri gitmez (eski frame'ler gap olarak bildirilir).
+ *
+ * Seq alma ve broker'a gönderme destination kilidi altında tek adımdır: aynı topic'e eşzamanlı yayınlar abonelere
+ * seq sırasıyla ulaşır (session içindeki sıra app.websocket.preserve-order ile korunur), client gördüğü en büyük
+ * seq'i from-seq olarak gönderebilir.
+ * Replay abonelik broker'a kaydedildikten sonra yapılır: kayıp olmaz, aynı seq iki kez gelebilir (client seq ile eler).
+ * Seq'ler node'a özeldir; cluster modunda replay için client'ın aynı node'a dönmesi gerekir (sticky session).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebSocketReplayBuffer implements ExecutorChannelInterceptor {
+
+    public static final String SEQ_HEADER = "seq";
+    public static final String FROM_SEQ_HEADER = "from-seq";
+    public static final String REPLAY_HEADER = "replay";
+    public static final String REPLAY_GAP_HEADER = "replay-gap";
+
+    private final MeterRegistry meterRegistry;
+
+    // Broker kurulumu sırasında henüz oluşmadığından lazy
+    private MessageChannel clientOutboundChannel;
+
+    @Value("${app.websocket.replay.enabled:false}")
+    private boolean enabled;
+
+    // Destination başına tutulan en fazla frame
+    @Value("${app.websocket.replay.size:256}")
+    private int size;
+
+    @Value("${app.websocket.replay.ttl-ms:60000}")
+    private long ttlMs;
+
+    // Buffer tutulan en fazla destination - aşılırsa yeni destination'lar buffer'lanmaz
+    @Value("${app.websocket.replay.max-destinations:10000}")
+    private int maxDestinations;
+
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+
+    // Node'da verilmiş en büyük seq - bırakılan buffer'ın yerine açılan buffer buradan devam eder
+    private final AtomicLong highestSeq = new AtomicLong();
+
+    private Counter replayedFrames;
+    private Counter gaps;
+
+    @Autowired
+    public void setClientOutboundChannel(@Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
+        this.clientOutboundChannel = clientOutboundChannel;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        replayedFrames = Counter.builder("websocket.replay.frames")
+                .description("Buffer'dan tekrar gönderilen frame'ler")
+                .register(meterRegistry);
+        gaps = Counter.builder("websocket.replay.gaps")
+                .description("İstenen frame'lerin bir kısmı buffer'dan düştüğü için eksik kalan replay'ler")
+                .register(meterRegistry);
+        Gauge.builder("websocket.replay.buffered", this, WebSocketReplayBuffer::bufferedFrames)
+                .description("Replay buffer'larında tutulan frame sayısı")
+                .register(meterRegistry);
+        if (enabled) {
+            log.info("✅ WebSocket replay buffer aktif - size: {}, ttl: {}ms", size, ttlMs);
+        }
+    }
+
+    // =============== KAYIT ===============
+
+    /**
+     * Frame'i destination'ın buffer'ına ekler ve aldığı sıra numarasıyla send'i aynı destination kilidi altında
+     * çağırır (kapalıysa veya limit doluysa seq 0 ile, kilitsiz)
+     */
+    public void recordAndSend(String destination, byte[] frame, PayloadEncoding encoding, LongConsumer send) {
+        while (true) {
+            Ring ring = enabled ? ringFor(destination) : null;
+            if (ring == null) {
+                send.accept(0);
+                return;
+            }
+            // Virtual thread'leri pinlememek için synchronized yerine ReentrantLock
+            ring.publishLock.lock();
+            try {
+                // Temizlikte bırakılan buffer'a yazılmaz; yerine açılan buffer ondan sonraki seq'ten başlar
+                if (ring.retired) {
+                    continue;
+                }
+                long seq = ring.append(frame, encoding, System.currentTimeMillis());
+                highestSeq.accumulateAndGet(seq, Math::max);
+                send.accept(seq);
+                return;
+            } finally {
+                ring.publishLock.unlock();
+            }
+        }
+    }
+
+    private Ring ringFor(String destination) {
+        Ring ring = rings.get(destination);
+        if (ring == null) {
+            if (rings.size() >= maxDestinations) {
+                return null;
+            }
+            ring = rings.computeIfAbsent(destination, d -> new Ring(size, highestSeq.get() + 1));
+        }
+        return ring;
+    }
+
+    // =============== REPLAY ===============
+
+    /**
+     * SUBSCRIBE broker'a kaydedildikten sonra from-seq'ten sonraki frame'leri o aboneliğe gönderir
+     */
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (!enabled || ex != null || !(handler instanceof AbstractBrokerMessageHandler)) {
+            return;
+        }
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return;
+        }
+        String fromSeq = accessor.getFirstNativeHeader(FROM_SEQ_HEADER);
+        if (fromSeq == null || accessor.getDestination() == null) {
+            return;
+        }
+
+        long after;
+        try {
+            after = Long.parseLong(fromSeq.trim());
+        } catch (NumberFormatException e) {
+            log.debug("Geçersiz from-seq: {}", fromSeq);
+            return;
+        }
+
+        // Buffer bırakılmış: client'ın gördüğünden sonra yayın olup olmadığı bilinmiyor
+        Ring ring = rings.get(accessor.getDestination());
+        if (ring == null) {
+            gaps.increment();
+            clientOutboundChannel.send(gapFrame(accessor));
+            log.debug("⏪ Replay buffer yok, gap bildirildi: {} (session={}, from-seq={})",
+                    accessor.getDestination(), accessor.getSessionId(), after);
+            return;
+        }
+
+        // Client'ın seq'i buradakinden ileride: node değişmiş veya yeniden başlamış, seq uzayı farklı
+        boolean reset = after >= ring.nextSeq();
+        if (reset) {
+            after = 0;
+        }
+
+        List<Entry> missed = ring.after(after, System.currentTimeMillis() - ttlMs);
+        long firstAvailable = missed.isEmpty() ? ring.nextSeq() : missed.get(0).seq();
+        boolean gap = reset || firstAvailable > after + 1;
+        if (gap) {
+            gaps.increment();
+        }
+        if (missed.isEmpty()) {
+            if (gap) {
+                clientOutboundChannel.send(gapFrame(accessor));
+                log.debug("⏪ Tekrar gönderilecek frame yok, gap bildirildi: {} (session={}, from-seq={})",
+                        accessor.getDestination(), accessor.getSessionId(), after);
+            }
+            return;
+        }
+        for (int i = 0; i < missed.size(); i++) {
+            clientOutboundChannel.send(replayFrame(accessor, missed.get(i), gap && i == 0));
+        }
+        replayedFrames.increment(missed.size());
+        log.debug("⏪ {} frame tekrar gönderildi: {} (session={}, from-seq={}{})", missed.size(),
+                accessor.getDestination(), accessor.getSessionId(), after, gap ? ", gap" : "");
+    }
+
+    private Message<byte[]> replayFrame(StompHeaderAccessor subscribe, Entry entry, boolean gap) {
+        SimpMessageHeaderAccessor accessor = replayHeaders(subscribe);
+        accessor.setContentType(entry.encoding().getMimeType());
+        accessor.setNativeHeader(SEQ_HEADER, Long.toString(entry.seq()));
+        accessor.setNativeHeader(REPLAY_HEADER, "true");
+        if (gap) {
+            accessor.setNativeHeader(REPLAY_GAP_HEADER, "true");
+        }
+        return MessageBuilder.createMessage(entry.frame(), accessor.getMessageHeaders());
+    }
+
+    // Gövdesiz gap bildirimi; seq taşımaz ki client'ın seq ile eleme yapması bildirimi düşürmesin
+    private Message<byte[]> gapFrame(StompHeaderAccessor subscribe) {
+        SimpMessageHeaderAccessor accessor = replayHeaders(subscribe);
+        accessor.setNativeHeader(REPLAY_HEADER, "true");
+        accessor.setNativeHeader(REPLAY_GAP_HEADER, "true");
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private SimpMessageHeaderAccessor replayHeaders(StompHeaderAccessor subscribe) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(subscribe.getSessionId());
+        accessor.setSubscriptionId(subscribe.getSubscriptionId());
+        accessor.setDestination(subscribe.getDestination());
+        accessor.setSessionAttributes(subscribe.getSessionAttributes());
+        return accessor;
+    }
+
+    // =============== TEMİZLİK ===============
+
+    /**
+     * Son frame'i TTL'den eski olan destination'ların buffer'ını bırakır.
+     * Bırakma yayın kilidi altında yapılır: o an yazan yayın bitmeden yerine yeni buffer açılmaz, seq tekrar verilmez.
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.replay.ttl-ms:60000}")
+    public void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        rings.forEach((destination, ring) -> {
+            if (ring.lastAppendAt() >= cutoff || !ring.publishLock.tryLock()) {
+                return;
+            }
+            try {
+                if (ring.lastAppendAt() < cutoff) {
+                    ring.retired = true;
+                    rings.remove(destination, ring);
+                }
+            } finally {
+                ring.publishLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Replay buffer durumu (/websockets/stats için)
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("destinations", rings.size());
+        snapshot.put("bufferedFrames", (long) bufferedFrames());
+        snapshot.put("replayedFrames", (long) replayedFrames.count());
+        snapshot.put("gaps", (long) gaps.count());
+        return snapshot;
+    }
+
+    private double bufferedFrames() {
+        return rings.values().stream().mapToInt(Ring::size).sum();
+    }
+
+    // =============== İÇ SINIFLAR ===============
+
+    private record Entry(long seq, long at, byte[] frame, PayloadEncoding encoding) {
+    }
+
+    /**
+     * Sabit kapasiteli halka - dolunca en eski frame'in üzerine yazılır
+     */
+    private static final class Ring {
+        // Seq sırası ile broker'a gönderim sırası aynı kalsın diye yayın boyunca tutulur
+        private final ReentrantLock publishLock = new ReentrantLock();
+        private final Entry[] entries;
+        private long nextSeq;
+        private int count;
+        // Temizlikte map'ten çıkarıldı (publishLock altında yazılır/okunur)
+        private boolean retired;
+
+        private Ring(int capacity, long firstSeq) {
+            this.entries = new Entry[Math.max(1, capacity)];
+            this.nextSeq = firstSeq;
+        }
+
+        private synchronized long append(byte[] frame, PayloadEncoding encoding, long now) {
+            long seq = nextSeq++;
+            entries[(int) (seq % entries.length)] = new Entry(seq, now, frame, encoding);
+            count = Math.min(count + 1, entries.length);
+            return seq;
+        }
+
+        // seq'i 'after'dan büyük ve cutoff'tan yeni frame'ler, sırayla
+        private synchronized List<Entry> after(long after, long cutoff) {
+            List<Entry> result = new ArrayList<>();
+            long first = Math.max(after + 1, nextSeq - count);
+            for (long seq = first; seq < nextSeq; seq++) {
+                Entry entry = entries[(int) (seq % entries.length)];
+                if (entry.at() >= cutoff) {
+                    result.add(entry);
+                }
+            }
+            return result;
+        }
+
+        private synchronized long lastAppendAt() {
+            return count > 0 ? entries[(int) ((nextSeq - 1) % entries.length)].at() : 0;
+        }
+
+        private synchronized long nextSeq() {
+            return nextSeq;
+        }
+
+        private synchronized int size() {
+            return count;
+        }
+    }
+}
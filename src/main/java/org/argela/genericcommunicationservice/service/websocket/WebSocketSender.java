@@ -1,17 +1,32 @@
 package org.argela.genericcommunicationservice.service.websocket;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.argela.genericcommunicationservice.dto.WebSocketSendDto;
 import org.argela.genericcommunicationservice.entity.WebSocketEntity;
+import org.argela.genericcommunicationservice.enums.PayloadEncoding;
+import org.argela.genericcommunicationservice.service.JsonPayloads;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * WebSocket mesaj gönderimi servisi
+ * Mesaj yayın başına bir kez (DTO'daki encoding'e göre JSON veya CBOR/Smile/MessagePack) serialize edilir
+ * ve tüm abonelerle paylaşılır.
+ * Cluster modunda (app.websocket.cluster.enabled) yerel gönderimden sonra frame diğer replikalara da yayınlanır.
  */
 @Slf4j
 @Service
@@ -19,7 +34,12 @@ import java.util.Map;
 public class WebSocketSender {
 
     private final SimpMessagingTemplate simpMessagingTemplate;
+    private final SimpUserRegistry simpUserRegistry;
     private final WebSocketService webSocketService;
+    private final WebSocketSessionRegistry webSocketSessionRegistry;
+    private final Optional<WebSocketClusterRelay> webSocketClusterRelay;
+    private final ObjectMapper objectMapper;
+    private final WebSocketReplayBuffer webSocketReplayBuffer;
 
     /**
      * WebSocket mesajını gönderir
@@ -34,11 +54,7 @@ public class WebSocketSender {
             log.debug("✅ WebSocket bulundu: {}", webSocket.getEndpointUrl());
 
             // 2. Mesaj tipine göre gönderim
-            switch (dto.getMessageType() != null ? dto.getMessageType().toLowerCase() : "broadcast") {
-                case "user-specific" -> sendToUser(dto);
-                case "topic", "broadcast" -> sendToTopic(dto);
-                default -> sendToDestination(dto);
-            }
+            dispatch(dto);
 
             // 3. WebSocket health durumunu güncelle
             webSocketService.updateHealth(dto.getWebsocket(), WebSocketEntity.HealthStatus.ONLINE);
@@ -64,82 +80,158 @@ public class WebSocketSender {
         }
     }
 
+    /**
+     * Birden fazla WebSocket mesajını tek geçişte gönderir.
+     * Her websocket key'i bir kez doğrulanır ve health durumu key başına bir kez yazılır; sonuçlar giriş sırasıyla döner.
+     */
+    public List<WebSocketSendResult> sendAll(List<WebSocketSendDto> dtos) {
+        List<WebSocketSendResult> results = new ArrayList<>(dtos.size());
+        Map<String, Boolean> resolved = new HashMap<>();
+        Map<String, Boolean> anyDelivered = new HashMap<>();
+
+        for (WebSocketSendDto dto : dtos) {
+            String key = dto.getWebsocket();
+            boolean active = resolved.computeIfAbsent(key, this::isActive);
+            if (!active) {
+                results.add(WebSocketSendResult.failure("WebSocket bulunamadı: " + key));
+                continue;
+            }
+            try {
+                dispatch(dto);
+                results.add(WebSocketSendResult.success());
+                anyDelivered.put(key, true);
+            } catch (Exception e) {
+                log.warn("⚠️ Batch WebSocket mesajı gönderilemedi: destination={}, error={}",
+                        dto.getDestination(), e.getMessage());
+                results.add(WebSocketSendResult.failure("WebSocket gönderim hatası: " + e.getMessage()));
+                anyDelivered.putIfAbsent(key, false);
+            }
+        }
+
+        anyDelivered.forEach((key, delivered) -> webSocketService.updateHealth(key,
+                delivered ? WebSocketEntity.HealthStatus.ONLINE : WebSocketEntity.HealthStatus.ERROR));
+        log.info("✅ WebSocket batch gönderildi: {} mesaj, {} websocket", dtos.size(), resolved.size());
+        return results;
+    }
+
+    private boolean isActive(String key) {
+        try {
+            webSocketService.findActiveByKey(key);
+            return true;
+        } catch (WebSocketService.WebSocketNotFoundException e) {
+            log.error("❌ WebSocket bulunamadı: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // Mesaj tipine göre hedef seçimi
+    private void dispatch(WebSocketSendDto dto) throws IOException {
+        switch (dto.getMessageType() != null ? dto.getMessageType().toLowerCase() : "broadcast") {
+            case "user-specific" -> sendToUser(dto);
+            case "topic", "broadcast" -> sendToTopic(dto);
+            default -> sendToDestination(dto);
+        }
+    }
+
     /**
      * Topic'e broadcast mesaj gönder
      */
-    private void sendToTopic(WebSocketSendDto dto) {
+    private void sendToTopic(WebSocketSendDto dto) throws IOException {
         // Destination başında /topic yoksa ekle
         String destination = dto.getDestination().startsWith("/topic") ?
                 dto.getDestination() : "/topic" + dto.getDestination();
 
-        // Headers'ı message olarak gönder
-        Map<String, Object> messageWithHeaders = createMessageWithHeaders(dto);
-
-        simpMessagingTemplate.convertAndSend(destination, messageWithHeaders);
-        log.debug("📤 Topic mesajı gönderildi: {}", destination);
+        deliver(destination, null, dto);
+        int subscribers = webSocketSessionRegistry.recordPublish(destination);
+        log.debug("📤 Topic mesajı gönderildi: {} ({} abone)", destination, subscribers);
     }
 
     /**
      * Belirli kullanıcıya mesaj gönder
      */
-    private void sendToUser(WebSocketSendDto dto) {
+    private void sendToUser(WebSocketSendDto dto) throws IOException {
         // Headers'dan userId'yi al
         String userId = dto.getHeaders() != null ? dto.getHeaders().get("userId") : null;
         if (userId == null) {
             throw new IllegalArgumentException("User-specific mesaj için userId header'ı gerekli");
         }
 
-        String destination = dto.getDestination().startsWith("/user") ?
-                dto.getDestination() : dto.getDestination();
+        String destination = dto.getDestination();
 
-        // Headers'ı message olarak gönder
-        Map<String, Object> messageWithHeaders = createMessageWithHeaders(dto);
-
-        simpMessagingTemplate.convertAndSendToUser(userId, destination, messageWithHeaders);
-        log.debug("👤 User mesajı gönderildi: userId={}, destination={}", userId, destination);
+        deliver(destination, userId, dto);
+        // Client /user/queue/x'e abone olur; prefix template'inkiyle aynı ("/user/")
+        String prefix = simpMessagingTemplate.getUserDestinationPrefix();
+        String userDestination = prefix.substring(0, prefix.length() - 1)
+                + (destination.startsWith("/") ? destination : "/" + destination);
+        int subscribers = webSocketSessionRegistry.recordUserPublish(simpUserRegistry.getUser(userId), userDestination);
+        log.debug("👤 User mesajı gönderildi: userId={}, destination={} ({} abone)", userId, destination, subscribers);
     }
 
     /**
      * Raw destination'a mesaj gönder
      */
-    private void sendToDestination(WebSocketSendDto dto) {
-        // Headers'ı message olarak gönder
-        Map<String, Object> messageWithHeaders = createMessageWithHeaders(dto);
+    private void sendToDestination(WebSocketSendDto dto) throws IOException {
+        deliver(dto.getDestination(), null, dto);
+        int subscribers = webSocketSessionRegistry.recordPublish(dto.getDestination());
+        log.debug("🎯 Raw mesaj gönderildi: {} ({} abone)", dto.getDestination(), subscribers);
+    }
 
-        simpMessagingTemplate.convertAndSend(dto.getDestination(), messageWithHeaders);
-        log.debug("🎯 Raw mesaj gönderildi: {}", dto.getDestination());
+    // Aynı byte[] yerel abonelere ve (cluster modunda) diğer node'lara gider; topic frame'leri replay buffer'a da yazılır
+    private void deliver(String destination, String userId, WebSocketSendDto dto) throws IOException {
+        PayloadEncoding encoding = dto.getEncoding() != null && !dto.getEncoding().isBlank()
+                ? PayloadEncoding.fromName(dto.getEncoding()) : PayloadEncoding.JSON;
+        byte[] frame = serialize(dto, encoding);
+
+        if (userId == null) {
+            webSocketReplayBuffer.recordAndSend(destination, frame, encoding,
+                    seq -> WebSocketFrames.deliverLocal(simpMessagingTemplate, destination, null, frame, encoding, seq));
+        } else {
+            WebSocketFrames.deliverLocal(simpMessagingTemplate, destination, userId, frame, encoding, 0);
+        }
+        webSocketClusterRelay.ifPresent(relay -> relay.publish(destination, userId, frame, encoding));
     }
 
     /**
-     * Payload ve headers'ı birleştirip mesaj objesi oluştur
+     * Payload, headers ve meta bilgileri tek seferde istenen encoding'de byte'lara yazar (ara Map yok).
+     * Payload geçerli JSON ise olduğu gibi gömülür (JSON'da raw, binary encoding'lerde token token kopyalanır;
+     * çift encode edilmez), değilse string olarak yazılır.
      */
-    private Map<String, Object> createMessageWithHeaders(WebSocketSendDto dto) {
-        Map<String, Object> message = new HashMap<>();
+    private byte[] serialize(WebSocketSendDto dto, PayloadEncoding encoding) throws IOException {
+        ByteArrayBuilder buffer = new ByteArrayBuilder();
+        try (JsonGenerator generator = encoding == PayloadEncoding.JSON
+                ? objectMapper.createGenerator(buffer, JsonEncoding.UTF8)
+                : encoding.getFactory().createGenerator(buffer)) {
+            generator.setCodec(objectMapper);
+            generator.writeStartObject();
 
-        // Ana payload'ı parse et
-        try {
-            if (dto.getPayload() != null && !dto.getPayload().trim().isEmpty()) {
-                // JSON string'i object olarak parse etmeye çalış
-                // Eğer parse edilemezse raw string olarak ekle
-                message.put("payload", dto.getPayload());
+            String payload = dto.getPayload();
+            if (payload != null && !payload.trim().isEmpty()) {
+                generator.writeFieldName("payload");
+                if (!JsonPayloads.isJson(objectMapper.getFactory(), payload)) {
+                    generator.writeString(payload);
+                } else if (encoding == PayloadEncoding.JSON) {
+                    generator.writeRawValue(payload);
+                } else {
+                    try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+                        parser.nextToken();
+                        generator.copyCurrentStructure(parser);
+                    }
+                }
             }
-        } catch (Exception e) {
-            // Parse edilemezse raw string olarak ekle
-            message.put("payload", dto.getPayload());
-        }
 
-        // Headers'ı ekle
-        if (dto.getHeaders() != null && !dto.getHeaders().isEmpty()) {
-            message.put("headers", dto.getHeaders());
-        }
-
-        // Meta bilgiler ekle
-        message.put("sender", dto.getSender());
-        message.put("groupId", dto.getGroupId());
-        message.put("messageType", dto.getMessageType());
-        message.put("timestamp", java.time.Instant.now().toString());
+            // Headers'ı ekle
+            if (dto.getHeaders() != null && !dto.getHeaders().isEmpty()) {
+                generator.writeObjectField("headers", dto.getHeaders());
+            }
 
-        return message;
+            // Meta bilgiler ekle
+            generator.writeStringField("sender", dto.getSender());
+            generator.writeStringField("groupId", dto.getGroupId());
+            generator.writeStringField("messageType", dto.getMessageType());
+            generator.writeStringField("timestamp", java.time.Instant.now().toString());
+            generator.writeEndObject();
+        }
+        return buffer.toByteArray();
     }
 
     /**
@@ -0,0 +1,397 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.entity.WebSocketEntity;
+import org.argela.genericcommunicationservice.repository.WebSocketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Canlı STOMP session kaydı.
+ * CONNECT inbound kanalda yakalanır: session'ın ait olduğu websocket ('websocket' CONNECT header'ı, yoksa varsayılan)
+ * maxConnections'a ulaştıysa bağlantı ERROR frame ile reddedilir. Subscribe/unsubscribe/disconnect event'leri ile
+ * destination başına abone sayıları tutulur; yayınlarda kaç aboneye gittiği (fan-out) ölçülür.
+ * Websocket'in connectionParams.conflate listesi (latest-value destination pattern'leri) ve
+ * connectionParams.slowConsumerPolicy değeri de aynı yenilemeyle yüklenir.
+ * Bu ayarlar açılışta ve limits-refresh-ms'de bir zamanlanmış görevle DB'den yenilenir; CONNECT ve outbound
+ * kanal thread'leri sadece volatile map'leri okur.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebSocketSessionRegistry implements ChannelInterceptor {
+
+    // Client'ın bağlandığı websocket key'ini bildirdiği CONNECT header'ı
+    public static final String WEBSOCKET_HEADER = "websocket";
+
+    // connectionParams içinde conflate edilecek destination pattern'leri (liste veya virgüllü string)
+    public static final String CONFLATE_PARAM = "conflate";
+
+    // connectionParams içinde yavaş client politikası (drop-oldest, conflate, disconnect)
+    public static final String SLOW_CONSUMER_POLICY_PARAM = "slowConsumerPolicy";
+
+    private static final int TOP_DESTINATIONS = 100;
+
+    private final WebSocketRepository webSocketRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.websocket.default-key:websocket-local}")
+    private String defaultKey;
+
+    @Value("${app.websocket.heartbeat-ms:60000}")
+    private long defaultHeartbeatMs;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Map<String, SessionInfo> sessions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> connectionsByKey = new ConcurrentHashMap<>();
+    private final Map<String, Integer> subscribersByDestination = new ConcurrentHashMap<>();
+    private final Map<String, Integer> subscribersByPattern = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Integer> maxConnectionsByKey = Map.of();
+    private volatile Map<String, List<String>> conflationByKey = Map.of();
+    private volatile Map<String, String> slowConsumerPolicyByKey = Map.of();
+
+    private Counter rejectedConnects;
+    private DistributionSummary publishFanOut;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("websocket.sessions", sessions, Map::size)
+                .description("Açık STOMP session sayısı")
+                .register(meterRegistry);
+        Gauge.builder("websocket.subscriptions", this, WebSocketSessionRegistry::totalSubscriptions)
+                .description("Toplam aktif STOMP aboneliği")
+                .register(meterRegistry);
+        Gauge.builder("websocket.destinations", subscribersByDestination, Map::size)
+                .description("En az bir abonesi olan destination sayısı")
+                .register(meterRegistry);
+        rejectedConnects = Counter.builder("websocket.connections.rejected")
+                .description("maxConnections nedeniyle reddedilen STOMP CONNECT'ler")
+                .register(meterRegistry);
+        publishFanOut = DistributionSummary.builder("websocket.publish.fanout")
+                .description("Yayınlanan mesajın ulaştığı abone sayısı")
+                .register(meterRegistry);
+        refreshLimits();
+    }
+
+    // =============== CONNECT KABULÜ ===============
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && (accessor.getCommand() == StompCommand.CONNECT || accessor.getCommand() == StompCommand.STOMP)) {
+            admit(message, accessor);
+        }
+        return message;
+    }
+
+    private void admit(Message<?> message, StompHeaderAccessor accessor) {
+        String key = resolveKey(accessor.getFirstNativeHeader(WEBSOCKET_HEADER));
+        int max = maxConnectionsByKey.getOrDefault(key, 0);
+
+        AtomicInteger count = connectionsByKey.computeIfAbsent(key, k -> new AtomicInteger());
+        while (true) {
+            int current = count.get();
+            if (max > 0 && current >= max) {
+                rejectedConnects.increment();
+                log.warn("⛔ WebSocket bağlantısı reddedildi: {} maxConnections={} dolu (session={})",
+                        key, max, accessor.getSessionId());
+                throw new MessageDeliveryException(message, "WebSocket bağlantı limiti dolu: " + key + " (" + max + ")");
+            }
+            if (count.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+
+        SessionInfo previous = sessions.put(accessor.getSessionId(), new SessionInfo(key));
+        if (previous != null) {
+            release(previous);
+        }
+        log.debug("🔌 STOMP session açıldı: {} -> {}", accessor.getSessionId(), key);
+    }
+
+    // Bilinmeyen/pasif key'ler limit atlatılmasın diye varsayılan websocket'e sayılır
+    private String resolveKey(String requested) {
+        Map<String, Integer> limits = limits();
+        return requested != null && limits.containsKey(requested) ? requested : defaultKey;
+    }
+
+    // =============== EVENT'LER ===============
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        SessionInfo session = sessions.get(accessor.getSessionId());
+        String destination = accessor.getDestination();
+        if (session == null || destination == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        if (session.subscriptions.putIfAbsent(accessor.getSubscriptionId(), destination) == null) {
+            countersFor(destination).merge(destination, 1, Integer::sum);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        SessionInfo session = sessions.get(accessor.getSessionId());
+        if (session == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        String destination = session.subscriptions.remove(accessor.getSubscriptionId());
+        if (destination != null) {
+            decrement(destination);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        // DISCONNECT frame + kapanış için iki kez gelebilir - remove idempotent
+        SessionInfo session = sessions.remove(event.getSessionId());
+        if (session != null) {
+            release(session);
+            log.debug("🔌 STOMP session kapandı: {} ({})", event.getSessionId(), event.getCloseStatus());
+        }
+    }
+
+    private void release(SessionInfo session) {
+        AtomicInteger count = connectionsByKey.get(session.key);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+        session.subscriptions.values().forEach(this::decrement);
+        session.subscriptions.clear();
+    }
+
+    private void decrement(String destination) {
+        countersFor(destination).computeIfPresent(destination, (k, v) -> v > 1 ? v - 1 : null);
+    }
+
+    private Map<String, Integer> countersFor(String destination) {
+        return pathMatcher.isPattern(destination) ? subscribersByPattern : subscribersByDestination;
+    }
+
+    // =============== SORGULAR ===============
+
+    /**
+     * Destination'a yayınlanan mesajın ulaşacağı abone sayısı (tam eşleşme + pattern abonelikler)
+     */
+    public int subscriberCount(String destination) {
+        int count = subscribersByDestination.getOrDefault(destination, 0);
+        for (Map.Entry<String, Integer> pattern : subscribersByPattern.entrySet()) {
+            if (pathMatcher.match(pattern.getKey(), destination)) {
+                count += pattern.getValue();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Yayının fan-out'unu ölçer ve abone sayısını döner
+     */
+    public int recordPublish(String destination) {
+        int subscribers = subscriberCount(destination);
+        publishFanOut.record(subscribers);
+        return subscribers;
+    }
+
+    /**
+     * User-specific yayının fan-out'unu ölçer: kullanıcının session'larında userDestination'a
+     * (ör. /user/queue/x) yapılmış abonelik sayısını döner (kullanıcı bağlı değilse 0)
+     */
+    public int recordUserPublish(SimpUser user, String userDestination) {
+        int subscribers = 0;
+        if (user != null) {
+            for (SimpSession session : user.getSessions()) {
+                for (SimpSubscription subscription : session.getSubscriptions()) {
+                    if (userDestination.equals(subscription.getDestination())) {
+                        subscribers++;
+                    }
+                }
+            }
+        }
+        publishFanOut.record(subscribers);
+        return subscribers;
+    }
+
+    /**
+     * Session'ın bağlı olduğu websocket'in conflate destination pattern'leri (session bilinmiyorsa boş)
+     */
+    public List<String> conflatedDestinations(String sessionId) {
+        SessionInfo session = sessionId != null ? sessions.get(sessionId) : null;
+        if (session == null) {
+            return List.of();
+        }
+        return conflationByKey.getOrDefault(session.key, List.of());
+    }
+
+    /**
+     * Session'ın bağlı olduğu websocket key'i (session bilinmiyorsa null)
+     */
+    public String websocketKey(String sessionId) {
+        SessionInfo session = sessionId != null ? sessions.get(sessionId) : null;
+        return session != null ? session.key : null;
+    }
+
+    /**
+     * Session'ın websocket'inde connectionParams.slowConsumerPolicy ile verilen politika (yoksa null)
+     */
+    public String slowConsumerPolicy(String sessionId) {
+        String key = websocketKey(sessionId);
+        if (key == null) {
+            return null;
+        }
+        return slowConsumerPolicyByKey.get(key);
+    }
+
+    /**
+     * Websocket key -> connectionParams.slowConsumerPolicy (sadece tanımlı olanlar)
+     */
+    public Map<String, String> slowConsumerPolicies() {
+        return slowConsumerPolicyByKey;
+    }
+
+    public int activeConnections(String key) {
+        AtomicInteger count = connectionsByKey.get(key);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Broker heartbeat'i - primary websocket'in heartbeatInterval'ı, okunamazsa app.websocket.heartbeat-ms
+     */
+    public long heartbeatIntervalMs() {
+        try {
+            return webSocketRepository.findByIsPrimaryTrueAndIsActiveTrue()
+                    .map(WebSocketEntity::getHeartbeatInterval)
+                    .filter(interval -> interval != null && interval >= 0)
+                    .map(Integer::longValue)
+                    .orElse(defaultHeartbeatMs);
+        } catch (Exception e) {
+            log.warn("⚠️ Heartbeat DB'den okunamadı, varsayılan kullanılıyor: {}ms ({})", defaultHeartbeatMs, e.getMessage());
+            return defaultHeartbeatMs;
+        }
+    }
+
+    /**
+     * Canlı session / abone istatistikleri (/websockets/stats için)
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Integer> limits = limits();
+        Map<String, Object> byWebSocket = new LinkedHashMap<>();
+        connectionsByKey.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> byWebSocket.put(entry.getKey(), Map.of(
+                        "activeConnections", entry.getValue().get(),
+                        "maxConnections", limits.getOrDefault(entry.getKey(), 0))));
+
+        Map<String, Integer> topDestinations = subscribersByDestination.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(TOP_DESTINATIONS)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("activeSessions", sessions.size());
+        snapshot.put("totalSubscriptions", totalSubscriptions());
+        snapshot.put("destinations", subscribersByDestination.size());
+        snapshot.put("patternSubscriptions", Map.copyOf(subscribersByPattern));
+        snapshot.put("connectionsByWebSocket", byWebSocket);
+        snapshot.put("subscribersByDestination", topDestinations);
+        snapshot.put("rejectedConnects", (long) rejectedConnects.count());
+        snapshot.put("publishes", publishFanOut.count());
+        snapshot.put("avgFanOut", publishFanOut.mean());
+        return snapshot;
+    }
+
+    private double totalSubscriptions() {
+        return sessions.values().stream().mapToInt(session -> session.subscriptions.size()).sum();
+    }
+
+    /**
+     * Aktif websocket'lerin maxConnections, conflate pattern'leri ve slow consumer politikasını DB'den yeniler.
+     * Yüklenemezse önceki değerler kalır.
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.limits-refresh-ms:30000}",
+            initialDelayString = "${app.websocket.limits-refresh-ms:30000}")
+    public void refreshLimits() {
+        try {
+            List<WebSocketEntity> active = webSocketRepository.findByIsActiveTrueOrderByKey();
+            maxConnectionsByKey = active.stream().collect(Collectors.toUnmodifiableMap(
+                    WebSocketEntity::getKey,
+                    ws -> ws.getMaxConnections() != null ? ws.getMaxConnections() : 0));
+            conflationByKey = active.stream().collect(Collectors.toUnmodifiableMap(
+                    WebSocketEntity::getKey,
+                    ws -> conflatePatterns(ws.getConnectionParams())));
+            slowConsumerPolicyByKey = active.stream()
+                    .filter(ws -> ws.getConnectionParams() != null
+                            && ws.getConnectionParams().get(SLOW_CONSUMER_POLICY_PARAM) != null)
+                    .collect(Collectors.toUnmodifiableMap(
+                            WebSocketEntity::getKey,
+                            ws -> String.valueOf(ws.getConnectionParams().get(SLOW_CONSUMER_POLICY_PARAM))));
+        } catch (Exception e) {
+            log.warn("⚠️ WebSocket limitleri yüklenemedi: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, Integer> limits() {
+        return maxConnectionsByKey;
+    }
+
+    private static List<String> conflatePatterns(Map<String, Object> connectionParams) {
+        Object value = connectionParams != null ? connectionParams.get(CONFLATE_PARAM) : null;
+        Stream<String> patterns;
+        if (value instanceof Collection<?> collection) {
+            patterns = collection.stream().map(String::valueOf);
+        } else if (value instanceof String string) {
+            patterns = Arrays.stream(string.split(","));
+        } else {
+            return List.of();
+        }
+        return patterns.map(String::trim).filter(pattern -> !pattern.isEmpty()).toList();
+    }
+
+    // =============== İÇ SINIFLAR ===============
+
+    private static final class SessionInfo {
+        private final String key;
+        // subscriptionId -> destination
+        private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+
+        private SessionInfo(String key) {
+            this.key = key;
+        }
+    }
+}
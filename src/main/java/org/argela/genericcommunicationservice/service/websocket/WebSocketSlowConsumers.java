@@ -0,0 +1,632 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.argela.genericcommunicationservice.enums.SlowConsumerPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Session başına outbound kuyruğu: yavaş client (slow consumer) takibi, latest-value conflation slotları ve politikalar.
+ * Session'ın önceki frame'i henüz client'a yazılmamışken gelen frame'ler Spring'in buffer'ları yerine session başına
+ * tek bir kuyrukta bekletilir ve sırayla gönderilir; böylece bekleyen mesaj/byte sayısı session bazında bilinir.
+ * - app.websocket.preserve-order=true: session'ın sırası bu kuyrukla korunur. Kanala verilip henüz işlenmemiş frame
+ *   varken gelen her frame kuyruğa girer. Spring'in preservePublishOrder'ı bu yüzden kapalıdır (WebSocketConfig);
+ *   açık olsaydı bekleme Spring'in sınırsız session kuyruğunda olur, buradaki limitler hiç devreye girmezdi.
+ * - false: sadece session'a yazım sürerken gelen MESSAGE frame'leri kuyruğa girer (sıra garanti edilmez).
+ * WebSocketConflation'ın destination'larında aboneliğin kuyrukta bekleyen değeri yenisiyle değiştirilir (slot).
+ * Limit aşılınca politika uygulanır (sadece MESSAGE frame'leri atılır):
+ * - drop-oldest: en eski mesajlar atılır
+ * - conflate: client yavaşken tüm abonelikler slot gibi davranır, limit yine aşılırsa en eskiler atılır
+ * - disconnect: bağlantı app.websocket.slow-consumer.close-code ve neden ile kapatılır (yazım stall-ms'den uzun sürerse de)
+ *
+ * Politika: websocket'in connectionParams.slowConsumerPolicy'si, yoksa app.websocket.slow-consumer.policy.
+ * Kuyrukta slow-pending-messages'a ulaşan veya yazımı stall-ms'yi geçen session yavaş sayılır (/websockets/slow-consumers).
+ * Spring'in send-buffer-size-limit / send-time-limit'i son sınır olarak kalır.
+ * Metrikler: websocket.slow.consumers, websocket.outbound.pending.messages / .bytes, websocket.send.latency,
+ * websocket.slow.actions{action=dropped|conflated|disconnected}
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebSocketSlowConsumers implements ExecutorChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    // CloseStatus reason'ı en fazla 123 byte olabilir
+    private static final int MAX_CLOSE_REASON = 120;
+
+    private final WebSocketSessionRegistry webSocketSessionRegistry;
+    private final WebSocketConflation webSocketConflation;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.websocket.preserve-order:true}")
+    private boolean preserveOrder;
+
+    @Value("${app.websocket.slow-consumer.policy:drop-oldest}")
+    private String policyName;
+
+    // Kuyrukta bu kadar mesaj bekleyen session yavaş sayılır (conflate politikası bu noktada devreye girer)
+    @Value("${app.websocket.slow-consumer.slow-pending-messages:100}")
+    private int slowPendingMessages;
+
+    @Value("${app.websocket.slow-consumer.max-pending-messages:1000}")
+    private int maxPendingMessages;
+
+    @Value("${app.websocket.slow-consumer.max-pending-bytes:1048576}")
+    private long maxPendingBytes;
+
+    // Tek bir frame'in yazımı bu süreyi geçerse session yavaş sayılır (disconnect politikasında kapatılır)
+    @Value("${app.websocket.slow-consumer.stall-ms:5000}")
+    private long stallMs;
+
+    @Value("${app.websocket.slow-consumer.close-code:4008}")
+    private int closeCode;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private final ExecutorService drainExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-slow-consumer-", 0).factory());
+
+    private SlowConsumerPolicy defaultPolicy;
+
+    // Outbound kanalın handler'ı (SubProtocolWebSocketHandler) - kuyruktaki mesajlar doğrudan ona verilir
+    private volatile MessageHandler outboundHandler;
+
+    private Timer sendLatency;
+    private Counter dropped;
+    private Counter conflated;
+    private Counter disconnected;
+
+    @PostConstruct
+    public void init() {
+        defaultPolicy = SlowConsumerPolicy.fromName(policyName);
+
+        sendLatency = Timer.builder("websocket.send.latency")
+                .description("Tek bir frame'in client'a yazım süresi")
+                .register(meterRegistry);
+        dropped = actionCounter("dropped", "Limit aşıldığı veya session kapandığı için gönderilmeyen mesajlar");
+        conflated = actionCounter("conflated", "Yavaş client'ta aynı aboneliğin yeni mesajıyla değiştirilen mesajlar");
+        disconnected = actionCounter("disconnected", "Yavaş olduğu için kapatılan bağlantılar");
+        Gauge.builder("websocket.slow.consumers", this, s -> s.slowSessions().size())
+                .description("Yavaş sayılan session sayısı")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.pending.messages", this, s -> s.pendingTotal(false))
+                .description("Session kuyruklarında bekleyen mesaj sayısı")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.pending.bytes", this, s -> s.pendingTotal(true))
+                .description("Session kuyruklarında bekleyen payload byte'ları")
+                .register(meterRegistry);
+
+        log.info("✅ WebSocket slow consumer politikası: {} - max {} mesaj / {} byte, stall: {}ms, preserve-order: {}",
+                defaultPolicy, maxPendingMessages, maxPendingBytes, stallMs, preserveOrder);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainExecutor.shutdown();
+    }
+
+    // =============== OUTBOUND KANAL ===============
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        SessionState state = sessions.get(SimpMessageHeaderAccessor.getSessionId(headers));
+        if (state == null) {
+            return message;
+        }
+        boolean frame = SimpMessageHeaderAccessor.getMessageType(headers) == SimpMessageType.MESSAGE;
+        // Sıra korunmuyorsa sadece MESSAGE frame'leri izlenir
+        if (!frame && !preserveOrder) {
+            return message;
+        }
+        synchronized (state) {
+            // Client boşta ve önünde bekleyen frame yoksa normal yoldan gider
+            if (state.isIdle()) {
+                if (preserveOrder) {
+                    state.inFlight++;
+                }
+                return message;
+            }
+        }
+        enqueue(state, message, frame);
+        return null;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Executor reddettiyse frame hiç işlenmeyecek - session'ın sırası kilitli kalmasın
+        if (preserveOrder && ex != null) {
+            completed(message);
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if (outboundHandler == null) {
+            outboundHandler = handler;
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (preserveOrder) {
+            completed(message);
+        }
+    }
+
+    // Normal yoldan giden frame işlendi - arkasında bekleyenler varsa sırayla gönderilir
+    private void completed(Message<?> message) {
+        SessionState state = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (state == null) {
+            return;
+        }
+        boolean start;
+        synchronized (state) {
+            if (state.inFlight > 0) {
+                state.inFlight--;
+            }
+            start = state.startDrain();
+        }
+        if (start) {
+            drain(state);
+        }
+    }
+
+    private void enqueue(SessionState state, Message<?> message, boolean frame) {
+        MessageHeaders headers = message.getHeaders();
+        String subscriptionId = frame ? SimpMessageHeaderAccessor.getSubscriptionId(headers) : null;
+        int bytes = message.getPayload() instanceof byte[] payload ? payload.length : 0;
+        boolean slot = subscriptionId != null && webSocketConflation.conflates(headers);
+        SlowConsumerPolicy policy = frame ? policyFor(state.sessionId) : null;
+
+        String closeReason = null;
+        boolean start;
+        synchronized (state) {
+            if (state.closing) {
+                if (frame) {
+                    drop(state, 1);
+                }
+                return;
+            }
+            long now = System.nanoTime();
+            boolean latestValue = subscriptionId != null
+                    && (slot || (policy == SlowConsumerPolicy.CONFLATE && state.isSlow(now)));
+            Pending previous = latestValue ? state.slots.get(subscriptionId) : null;
+            if (previous != null) {
+                state.replace(previous, message, bytes);
+                if (previous.slot) {
+                    webSocketConflation.onMerged();
+                } else {
+                    state.conflated.incrementAndGet();
+                    conflated.increment();
+                }
+            } else {
+                state.add(new Pending(message, subscriptionId, bytes, frame, slot), latestValue);
+                if (slot) {
+                    webSocketConflation.onDeferred();
+                }
+            }
+
+            if (state.pendingMessages > maxPendingMessages || state.pendingBytes > maxPendingBytes) {
+                if (policy == SlowConsumerPolicy.DISCONNECT) {
+                    closeReason = "slow consumer: " + state.pendingMessages + " messages / " + state.pendingBytes + " bytes pending";
+                } else {
+                    dropOldest(state);
+                }
+            } else if (policy == SlowConsumerPolicy.DISCONNECT && state.writeMillis(now) > stallMs) {
+                closeReason = "slow consumer: write stalled " + state.writeMillis(now) + " ms";
+            }
+            // Önündeki frame bu arada bittiyse kuyruk beklemede kalmasın
+            start = closeReason == null && state.startDrain();
+        }
+        if (closeReason != null) {
+            disconnect(state, closeReason);
+        } else if (start) {
+            drain(state);
+        }
+    }
+
+    // state kilidi altında: limitin altına inene kadar en eski MESSAGE'lar atılır
+    private void dropOldest(SessionState state) {
+        while (state.pendingMessages > maxPendingMessages || state.pendingBytes > maxPendingBytes) {
+            Pending oldest = state.removeOldestFrame();
+            if (oldest == null) {
+                return;
+            }
+            drop(state, 1);
+            if (oldest.slot) {
+                webSocketConflation.onDropped(1);
+            }
+        }
+    }
+
+    /**
+     * Kuyruktaki frame'leri sırayla session'a verir. Her gönderim yazım bitene kadar sürer;
+     * bu sırada gelen frame'ler kuyrukta bekler. Kuyruk boşalınca drain aynı kilit altında bırakılır.
+     */
+    private void drain(SessionState state) {
+        drainExecutor.execute(() -> {
+            Pending next;
+            while ((next = state.pollForSend()) != null) {
+                if (next.slot) {
+                    webSocketConflation.onReleased();
+                }
+                try {
+                    outboundHandler.handleMessage(next.message);
+                } catch (Exception e) {
+                    log.warn("⚠️ Bekleyen WebSocket mesajı gönderilemedi: {} ({})", state.sessionId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void disconnect(SessionState state, String reason) {
+        synchronized (state) {
+            if (state.closing) {
+                return;
+            }
+            close(state);
+        }
+        disconnected.increment();
+        log.warn("🐢 Yavaş WebSocket client'ı kapatılıyor: {} ({}) - {}",
+                state.sessionId, webSocketSessionRegistry.websocketKey(state.sessionId), reason);
+        CloseStatus status = new CloseStatus(closeCode,
+                reason.length() > MAX_CLOSE_REASON ? reason.substring(0, MAX_CLOSE_REASON) : reason);
+        // Takılı bir yazım kapanışı bekletebileceğinden kanal thread'inde yapılmaz
+        drainExecutor.execute(() -> {
+            try {
+                state.session.close(status);
+            } catch (IOException e) {
+                log.debug("Yavaş client kapatılamadı: {} ({})", state.sessionId, e.getMessage());
+            }
+        });
+    }
+
+    // state kilidi altında: kuyruk bırakılır, bekleyen MESSAGE'lar atılmış sayılır
+    private void close(SessionState state) {
+        state.closing = true;
+        int frames = 0;
+        int slots = 0;
+        for (Pending pending : state.queue) {
+            if (pending.frame) {
+                frames++;
+            }
+            if (pending.slot) {
+                slots++;
+            }
+        }
+        state.clear();
+        drop(state, frames);
+        webSocketConflation.onDropped(slots);
+    }
+
+    private void drop(SessionState state, int count) {
+        if (count > 0) {
+            state.dropped.addAndGet(count);
+            dropped.increment(count);
+        }
+    }
+
+    private SlowConsumerPolicy policyFor(String sessionId) {
+        String configured = webSocketSessionRegistry.slowConsumerPolicy(sessionId);
+        if (configured == null) {
+            return defaultPolicy;
+        }
+        try {
+            return SlowConsumerPolicy.fromName(configured);
+        } catch (IllegalArgumentException e) {
+            log.debug("Geçersiz slowConsumerPolicy yok sayıldı: {} ({})", configured, sessionId);
+            return defaultPolicy;
+        }
+    }
+
+    // =============== SESSION TAKİBİ ===============
+
+    /**
+     * Yazım süresini ve sürüp sürmediğini izlemek için session'ı sarar.
+     * Spring bu session'ı ConcurrentWebSocketSessionDecorator ile sarar; bizim sendMessage'ımız gerçek yazım anında çağrılır.
+     */
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionState state = new SessionState(session);
+                sessions.put(session.getId(), state);
+                super.afterConnectionEstablished(new MonitoredSession(session, state));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                SessionState state = sessions.remove(session.getId());
+                if (state != null) {
+                    synchronized (state) {
+                        if (!state.closing) {
+                            close(state);
+                        }
+                    }
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // =============== DURUM ===============
+
+    /**
+     * Yavaş sayılan (veya all=true ise tüm) session'lar, bekleyen byte'a göre azalan sırada
+     */
+    public List<Map<String, Object>> sessions(boolean all, int limit) {
+        long now = System.nanoTime();
+        return sessions.values().stream()
+                .filter(state -> all || state.isSlow(now))
+                .sorted(Comparator.comparingLong((SessionState state) -> state.pendingBytes).reversed())
+                .limit(Math.max(0, limit))
+                .map(state -> describe(state, now))
+                .toList();
+    }
+
+    /**
+     * Politikalar ve limitler (/websockets/slow-consumers için)
+     */
+    public Map<String, Object> policies() {
+        Map<String, Object> policies = new LinkedHashMap<>();
+        policies.put("defaultPolicy", defaultPolicy);
+        policies.put("byWebSocket", webSocketSessionRegistry.slowConsumerPolicies());
+        policies.put("preserveOrder", preserveOrder);
+        policies.put("slowPendingMessages", slowPendingMessages);
+        policies.put("maxPendingMessages", maxPendingMessages);
+        policies.put("maxPendingBytes", maxPendingBytes);
+        policies.put("stallMs", stallMs);
+        policies.put("closeCode", closeCode);
+        return policies;
+    }
+
+    /**
+     * Slow consumer sayaçları (/websockets/stats için)
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("defaultPolicy", defaultPolicy);
+        snapshot.put("slowSessions", slowSessions().size());
+        snapshot.put("pendingMessages", (long) pendingTotal(false));
+        snapshot.put("pendingBytes", (long) pendingTotal(true));
+        snapshot.put("dropped", (long) dropped.count());
+        snapshot.put("conflated", (long) conflated.count());
+        snapshot.put("disconnected", (long) disconnected.count());
+        snapshot.put("avgSendLatencyMs", sendLatency.mean(TimeUnit.MILLISECONDS));
+        snapshot.put("maxSendLatencyMs", sendLatency.max(TimeUnit.MILLISECONDS));
+        return snapshot;
+    }
+
+    private Map<String, Object> describe(SessionState state, long now) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("sessionId", state.sessionId);
+        values.put("websocket", webSocketSessionRegistry.websocketKey(state.sessionId));
+        values.put("policy", policyFor(state.sessionId));
+        values.put("slow", state.isSlow(now));
+        values.put("pendingMessages", state.pendingMessages);
+        values.put("pendingBytes", state.pendingBytes);
+        values.put("writeInProgressMs", state.writeMillis(now));
+        values.put("lastSendLatencyMs", TimeUnit.NANOSECONDS.toMillis(state.lastSendNanos));
+        values.put("maxSendLatencyMs", TimeUnit.NANOSECONDS.toMillis(state.maxSendNanos));
+        values.put("sentFrames", state.sentFrames.get());
+        values.put("dropped", state.dropped.get());
+        values.put("conflated", state.conflated.get());
+        return values;
+    }
+
+    private List<SessionState> slowSessions() {
+        long now = System.nanoTime();
+        return sessions.values().stream().filter(state -> state.isSlow(now)).toList();
+    }
+
+    private double pendingTotal(boolean bytes) {
+        return sessions.values().stream().mapToLong(state -> bytes ? state.pendingBytes : state.pendingMessages).sum();
+    }
+
+    private Counter actionCounter(String action, String description) {
+        return Counter.builder("websocket.slow.actions")
+                .description(description)
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    // =============== İÇ SINIFLAR ===============
+
+    private static final class Pending {
+        private final String subscriptionId;
+        private final boolean frame;
+        // WebSocketConflation destination'ı - abonelik slotu
+        private final boolean slot;
+        // Aynı aboneliğin yeni değeri geldiğinde kuyruktaki yeri korunarak değiştirilir
+        private Message<?> message;
+        private int bytes;
+
+        private Pending(Message<?> message, String subscriptionId, int bytes, boolean frame, boolean slot) {
+            this.message = message;
+            this.subscriptionId = subscriptionId;
+            this.bytes = bytes;
+            this.frame = frame;
+            this.slot = slot;
+        }
+    }
+
+    private final class SessionState {
+        private final String sessionId;
+        private final WebSocketSession session;
+        // Kuyruk alanları this üzerinde senkronize değişir; volatile olanlar kilitsiz okunur
+        // Gönderilmeyi bekleyen frame'ler (geliş sırasıyla)
+        private final Deque<Pending> queue = new ArrayDeque<>();
+        // subscriptionId -> kuyrukta yeni değeriyle değiştirilebilecek mesaj (slot / conflate politikası)
+        private final Map<String, Pending> slots = new HashMap<>();
+        private volatile int pendingMessages;
+        private volatile long pendingBytes;
+        private volatile boolean closing;
+        // Normal yoldan kanala verilip henüz işlenmemiş frame sayısı (preserve-order)
+        private int inFlight;
+        private boolean draining;
+        // Süren yazımın başladığı an (System.nanoTime), yazım yoksa 0
+        private volatile long writeStartedAt;
+        private volatile long lastSendNanos;
+        private volatile long maxSendNanos;
+        private final AtomicLong sentFrames = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong conflated = new AtomicLong();
+
+        private SessionState(WebSocketSession session) {
+            this.sessionId = session.getId();
+            this.session = session;
+        }
+
+        private boolean isSlow(long now) {
+            return pendingMessages >= slowPendingMessages || writeMillis(now) > stallMs;
+        }
+
+        private long writeMillis(long now) {
+            long startedAt = writeStartedAt;
+            return startedAt != 0 ? TimeUnit.NANOSECONDS.toMillis(now - startedAt) : 0;
+        }
+
+        // Önünde ne kanalda ne kuyrukta frame var: yeni frame normal yoldan gidebilir
+        private synchronized boolean isIdle() {
+            return canSend() && queue.isEmpty();
+        }
+
+        private synchronized boolean canSend() {
+            return !draining && (preserveOrder ? inFlight == 0 : writeStartedAt == 0);
+        }
+
+        // Kuyrukta frame var ve gönderen yoksa drain'i bu çağıran başlatır
+        private synchronized boolean startDrain() {
+            if (closing || queue.isEmpty() || !canSend()) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        private synchronized void add(Pending pending, boolean latestValue) {
+            queue.addLast(pending);
+            if (latestValue) {
+                slots.put(pending.subscriptionId, pending);
+            }
+            pendingMessages = queue.size();
+            pendingBytes += pending.bytes;
+        }
+
+        private synchronized void replace(Pending pending, Message<?> message, int bytes) {
+            pendingBytes += bytes - pending.bytes;
+            pending.message = message;
+            pending.bytes = bytes;
+        }
+
+        // En yeni frame atılmaz (tek frame limitten büyükse de gönderilir)
+        private synchronized Pending removeOldestFrame() {
+            Pending newest = queue.peekLast();
+            Iterator<Pending> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Pending pending = iterator.next();
+                if (pending.frame && pending != newest) {
+                    iterator.remove();
+                    removed(pending);
+                    return pending;
+                }
+            }
+            return null;
+        }
+
+        // Sıradaki frame; kuyruk boşsa veya session kapanıyorsa drain bırakılır ve null döner
+        private synchronized Pending pollForSend() {
+            Pending pending = closing || outboundHandler == null ? null : queue.pollFirst();
+            if (pending == null) {
+                draining = false;
+                return null;
+            }
+            removed(pending);
+            return pending;
+        }
+
+        private void removed(Pending pending) {
+            if (pending.subscriptionId != null) {
+                slots.remove(pending.subscriptionId, pending);
+            }
+            pendingMessages = queue.size();
+            pendingBytes -= pending.bytes;
+        }
+
+        private synchronized void clear() {
+            queue.clear();
+            slots.clear();
+            pendingMessages = 0;
+            pendingBytes = 0;
+        }
+    }
+
+    private final class MonitoredSession extends WebSocketSessionDecorator {
+        private final SessionState state;
+
+        private MonitoredSession(WebSocketSession session, SessionState state) {
+            super(session);
+            this.state = state;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            long startedAt = System.nanoTime();
+            state.writeStartedAt = startedAt;
+            try {
+                super.sendMessage(message);
+            } finally {
+                long elapsed = System.nanoTime() - startedAt;
+                state.writeStartedAt = 0;
+                state.lastSendNanos = elapsed;
+                if (elapsed > state.maxSendNanos) {
+                    state.maxSendNanos = elapsed;
+                }
+                state.sentFrames.incrementAndGet();
+                sendLatency.record(elapsed, TimeUnit.NANOSECONDS);
+                // preserve-order kapalıyken yazım sürerken kuyruğa girenler şimdi gönderilir
+                if (!preserveOrder && state.startDrain()) {
+                    drain(state);
+                }
+            }
+        }
+    }
+}
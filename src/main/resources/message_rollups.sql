@@ -0,0 +1,22 @@
+-- Dakikalık mesaj rollup'ları (protokol / hedef / status bazında)
+CREATE TABLE message_rollups (
+                                 id SERIAL PRIMARY KEY,
+                                 bucket_start TIMESTAMPTZ NOT NULL,            -- dakika başlangıcı (UTC)
+                                 protocol VARCHAR(20) NOT NULL,
+                                 target VARCHAR(255) NOT NULL,                 -- broker key / websocket key / relay host
+                                 status VARCHAR(20) NOT NULL,
+                                 message_count BIGINT NOT NULL DEFAULT 0,
+                                 latency_sum_ms BIGINT NOT NULL DEFAULT 0,
+                                 latency_max_ms BIGINT NOT NULL DEFAULT 0,
+                                 latency_le_10ms BIGINT NOT NULL DEFAULT 0,
+                                 latency_le_50ms BIGINT NOT NULL DEFAULT 0,
+                                 latency_le_100ms BIGINT NOT NULL DEFAULT 0,
+                                 latency_le_250ms BIGINT NOT NULL DEFAULT 0,
+                                 latency_le_1000ms BIGINT NOT NULL DEFAULT 0,
+                                 latency_le_5000ms BIGINT NOT NULL DEFAULT 0,
+                                 latency_gt_5000ms BIGINT NOT NULL DEFAULT 0,
+                                 CONSTRAINT uk_message_rollups_bucket UNIQUE (bucket_start, protocol, target, status)
+);
+
+-- Indexes for performance
+CREATE INDEX idx_message_rollups_bucket ON message_rollups(bucket_start);
@@ -5,9 +5,38 @@ CREATE TABLE messages (
                           version VARCHAR(20),
                           headers JSONB,
                           body text,
+                          body_compressed BYTEA,                    -- eşik üstü gövdeler (sıkıştırılmış)
+                          body_codec VARCHAR(16),                   -- DEFLATE
+                          body_hash VARCHAR(64),                    -- message_bodies.hash (dedup)
                           sender VARCHAR(100),
                           group_id VARCHAR(100),
                           protocol VARCHAR(20),
                           status VARCHAR(20),
-                          timestamp TIMESTAMP
+                          timestamp TIMESTAMP,
+                          response_status INTEGER,                  -- REST relay yanıt kodu
+                          response_body text,                       -- ilk N KB
+                          response_size BIGINT,
+                          response_hash VARCHAR(64),                -- SHA-256 (tüm yanıt)
+                          completed_at TIMESTAMP,                   -- async relay bitiş zamanı
+                          failure_reason VARCHAR(32),               -- CONNECTION_ERROR, CIRCUIT_OPEN, BULKHEAD_FULL...
+                          cache_status VARCHAR(16)                  -- GET relay önbelleği: HIT, REVALIDATED, MISS
 );
+
+-- İçerik adresli gövde deposu (aynı payload tek satır)
+CREATE TABLE message_bodies (
+                                hash VARCHAR(64) PRIMARY KEY,             -- SHA-256 (hex)
+                                body text,
+                                body_compressed BYTEA,
+                                body_codec VARCHAR(16),
+                                size_bytes INTEGER,
+                                created_at TIMESTAMP DEFAULT NOW(),
+                                referenced_at TIMESTAMP DEFAULT NOW()     -- son store(); sahipsiz temizliği grace süresi
+);
+
+CREATE INDEX idx_messages_body_hash ON messages(body_hash);
+
+-- Arama index'leri (GET /api/v1/messages/search)
+CREATE INDEX idx_messages_headers_gin ON messages USING GIN (headers jsonb_path_ops);
+CREATE INDEX idx_messages_sender ON messages(sender);
+CREATE INDEX idx_messages_group_id ON messages(group_id);
+CREATE INDEX idx_messages_timestamp ON messages(timestamp);
@@ -0,0 +1,23 @@
+-- İsimli webhook abone kümeleri (fan-out)
+CREATE TABLE rest_subscriber_sets (
+                                      id SERIAL PRIMARY KEY,
+                                      name VARCHAR(100) UNIQUE NOT NULL,
+                                      urls JSONB NOT NULL,                      -- ["http://a/hook", "http://b/hook"]
+                                      description VARCHAR(255),
+                                      created_at TIMESTAMP DEFAULT NOW(),
+                                      updated_at TIMESTAMP DEFAULT NOW()
+);
+
+-- Fan-out relay'de hedef başına deneme kaydı (gövde messages tablosunda bir kez)
+CREATE TABLE relay_attempts (
+                                id BIGSERIAL PRIMARY KEY,
+                                message_id BIGINT NOT NULL,
+                                url VARCHAR(2048) NOT NULL,
+                                status VARCHAR(20) NOT NULL,
+                                response_status INTEGER,
+                                failure_reason VARCHAR(32),
+                                latency_ms BIGINT,
+                                attempted_at TIMESTAMP
+);
+
+CREATE INDEX idx_relay_attempts_message_id ON relay_attempts(message_id);
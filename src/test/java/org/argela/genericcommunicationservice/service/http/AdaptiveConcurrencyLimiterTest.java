@@ -0,0 +1,92 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final String TARGET = "upstream:8080";
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter(meterRegistry);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "initialLimit", 1);
+        ReflectionTestUtils.setField(limiter, "minLimit", 1);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 10);
+        ReflectionTestUtils.setField(limiter, "queueTimeoutMs", 0L);
+        ReflectionTestUtils.setField(limiter, "maxQueue", 10);
+        ReflectionTestUtils.setField(limiter, "smoothing", 0.2);
+        ReflectionTestUtils.setField(limiter, "backoffRatio", 0.9);
+        ReflectionTestUtils.setField(limiter, "shortWindow", 10);
+        ReflectionTestUtils.setField(limiter, "longWindow", 600);
+        ReflectionTestUtils.setField(limiter, "targetIdleEvictMs", 600_000L);
+    }
+
+    @Test
+    void rejectsWhenLimitIsFull() {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(TARGET);
+        assertThat(permit).isNotNull();
+        assertThat(limiter.acquire(TARGET)).isNull();
+
+        permit.release(false);
+        assertThat(limiter.acquire(TARGET)).isNotNull();
+    }
+
+    @Test
+    void limiterRejectionIsNotReportedToBreaker() {
+        RelayTargetGuard guard = new RelayTargetGuard(meterRegistry);
+        ReflectionTestUtils.setField(guard, "enabled", true);
+        ReflectionTestUtils.setField(guard, "maxInFlight", 4);
+        ReflectionTestUtils.setField(guard, "failureThreshold", 1);
+        ReflectionTestUtils.setField(guard, "openDurationMs", 0L);
+        ReflectionTestUtils.setField(guard, "halfOpenProbes", 1);
+
+        // Breaker'ı aç, open-duration 0 ile sıradaki istek HALF_OPEN probe'u olur
+        assertThat(guard.tryAcquire(TARGET)).isNull();
+        guard.release(TARGET, true);
+
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire(TARGET);
+        assertThat(guard.tryAcquire(TARGET)).isNull();
+        assertThat(limiter.acquire(TARGET)).isNull();
+        guard.abandon(TARGET);
+
+        // Hedefe gidilmediği için breaker kapanmaz, probe hakkı geri verilir
+        assertThat(guard.snapshot().get(0).get("state")).isEqualTo(RelayTargetGuard.CircuitState.HALF_OPEN);
+        assertThat(guard.tryAcquire(TARGET)).isNull();
+        guard.abandon(TARGET);
+        held.release(false);
+    }
+
+    @Test
+    void evictionRemovesIdleTargetMeters() {
+        limiter.acquire(TARGET).release(false);
+        assertThat(meterRegistry.find("relay.adaptive.limit").tag("target", TARGET).gauge()).isNotNull();
+
+        ReflectionTestUtils.setField(limiter, "targetIdleEvictMs", -1L);
+        limiter.evictIdleTargets();
+
+        assertThat(limiter.snapshot()).isEmpty();
+        assertThat(meterRegistry.find("relay.adaptive.limit").tag("target", TARGET).gauge()).isNull();
+        assertThat(meterRegistry.find("relay.adaptive.rejections").tag("target", TARGET).counter()).isNull();
+    }
+
+    @Test
+    void evictionKeepsTargetWithCallInFlight() {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(TARGET);
+
+        ReflectionTestUtils.setField(limiter, "targetIdleEvictMs", -1L);
+        limiter.evictIdleTargets();
+
+        assertThat(limiter.snapshot()).hasSize(1);
+        permit.release(false);
+    }
+}
@@ -0,0 +1,98 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.argela.genericcommunicationservice.enums.RelayFailureReason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RelayTargetGuardTest {
+
+    private static final String TARGET = "upstream:8080";
+
+    private SimpleMeterRegistry meterRegistry;
+    private RelayTargetGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new RelayTargetGuard(meterRegistry);
+        ReflectionTestUtils.setField(guard, "enabled", true);
+        ReflectionTestUtils.setField(guard, "maxInFlight", 2);
+        ReflectionTestUtils.setField(guard, "bulkheadWaitMs", 0L);
+        ReflectionTestUtils.setField(guard, "failureThreshold", 2);
+        ReflectionTestUtils.setField(guard, "openDurationMs", 0L);
+        ReflectionTestUtils.setField(guard, "halfOpenProbes", 1);
+        ReflectionTestUtils.setField(guard, "targetIdleEvictMs", 600_000L);
+    }
+
+    @Test
+    void abandonDoesNotResetConsecutiveFailures() {
+        assertThat(guard.tryAcquire(TARGET)).isNull();
+        guard.release(TARGET, true);
+
+        assertThat(guard.tryAcquire(TARGET)).isNull();
+        guard.abandon(TARGET);
+
+        assertThat(state().get("consecutiveFailures")).isEqualTo(1);
+        assertThat(state().get("inFlight")).isEqualTo(0);
+    }
+
+    @Test
+    void abandonedProbeKeepsBreakerHalfOpenAndFreesProbeSlot() {
+        openBreaker();
+
+        // open-duration 0: ilk istek HALF_OPEN probe'u olarak geçer, ikincisi probe hakkı dolu olduğu için reddedilir
+        assertThat(guard.tryAcquire(TARGET)).isNull();
+        assertThat(state().get("state")).isEqualTo(RelayTargetGuard.CircuitState.HALF_OPEN);
+        assertThat(guard.tryAcquire(TARGET)).isEqualTo(RelayFailureReason.CIRCUIT_OPEN);
+
+        guard.abandon(TARGET);
+        assertThat(state().get("state")).isEqualTo(RelayTargetGuard.CircuitState.HALF_OPEN);
+
+        // Probe hakkı geri verildi - gerçek bir başarılı çağrı breaker'ı kapatır
+        assertThat(guard.tryAcquire(TARGET)).isNull();
+        guard.release(TARGET, false);
+        assertThat(state().get("state")).isEqualTo(RelayTargetGuard.CircuitState.CLOSED);
+    }
+
+    @Test
+    void evictionRemovesIdleTargetMeters() {
+        assertThat(guard.tryAcquire(TARGET)).isNull();
+        guard.release(TARGET, false);
+        assertThat(meterRegistry.find("relay.guard.inflight").tag("target", TARGET).gauge()).isNotNull();
+
+        ReflectionTestUtils.setField(guard, "targetIdleEvictMs", -1L);
+        guard.evictIdleTargets();
+
+        assertThat(guard.snapshot()).isEmpty();
+        assertThat(meterRegistry.find("relay.guard.inflight").tag("target", TARGET).gauge()).isNull();
+    }
+
+    @Test
+    void evictionKeepsTargetWithCallInFlight() {
+        assertThat(guard.tryAcquire(TARGET)).isNull();
+
+        ReflectionTestUtils.setField(guard, "targetIdleEvictMs", -1L);
+        guard.evictIdleTargets();
+
+        assertThat(guard.snapshot()).hasSize(1);
+        guard.release(TARGET, false);
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 2; i++) {
+            assertThat(guard.tryAcquire(TARGET)).isNull();
+            guard.release(TARGET, true);
+        }
+        assertThat(state().get("state")).isEqualTo(RelayTargetGuard.CircuitState.OPEN);
+    }
+
+    private Map<String, Object> state() {
+        return guard.snapshot().get(0);
+    }
+}
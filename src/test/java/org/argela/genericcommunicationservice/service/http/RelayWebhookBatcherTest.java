@@ -0,0 +1,170 @@
+package org.argela.genericcommunicationservice.service.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.argela.genericcommunicationservice.dto.RestSendDto;
+import org.argela.genericcommunicationservice.enums.RelayFailureReason;
+import org.argela.genericcommunicationservice.service.JsonPayloads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RelayWebhookBatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpRelaySender httpRelaySender = mock(HttpRelaySender.class);
+
+    private RelayWebhookBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        batcher = new RelayWebhookBatcher(httpRelaySender, objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+        ReflectionTestUtils.setField(batcher, "windowMs", 60_000L);
+        ReflectionTestUtils.setField(batcher, "maxItems", 2);
+        ReflectionTestUtils.setField(batcher, "maxBytes", 1_048_576L);
+        batcher.registerMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void splitsArrayResponseIntoPerItemResults() {
+        respond(200, "[201, {\"status\": 409, \"error\": \"duplicate\"}]");
+
+        CompletableFuture<HttpRelaySender.HttpRelayResult> first = batcher.submit(message("{\"id\":1}"));
+        CompletableFuture<HttpRelaySender.HttpRelayResult> second = batcher.submit(message("{\"id\":2}"));
+
+        HttpRelaySender.HttpRelayResult firstResult = first.orTimeout(5, TimeUnit.SECONDS).join();
+        HttpRelaySender.HttpRelayResult secondResult = second.orTimeout(5, TimeUnit.SECONDS).join();
+        assertThat(firstResult.isDelivered()).isTrue();
+        assertThat(firstResult.getStatusCode()).isEqualTo(201);
+        assertThat(secondResult.isDelivered()).isFalse();
+        assertThat(secondResult.getStatusCode()).isEqualTo(409);
+        assertThat(secondResult.getFailureReason()).isEqualTo(RelayFailureReason.CLIENT_ERROR);
+        assertThat(secondResult.getResponseBody()).contains("duplicate");
+
+        ArgumentCaptor<RestSendDto> sent = ArgumentCaptor.forClass(RestSendDto.class);
+        verify(httpRelaySender).send(sent.capture());
+        assertThat(sent.getValue().getBody()).isEqualTo("[{\"id\":1},{\"id\":2}]");
+        assertThat(sent.getValue().getHeaders()).containsEntry(RelayWebhookBatcher.BATCH_SIZE_HEADER, "2");
+    }
+
+    @Test
+    void statusCodeFieldAndUnknownElementsFallBackToBatchStatus() {
+        respond(202, "[{\"statusCode\": 503}, \"ok\"]");
+
+        CompletableFuture<HttpRelaySender.HttpRelayResult> first = batcher.submit(message("{\"id\":1}"));
+        CompletableFuture<HttpRelaySender.HttpRelayResult> second = batcher.submit(message("{\"id\":2}"));
+
+        HttpRelaySender.HttpRelayResult firstResult = first.orTimeout(5, TimeUnit.SECONDS).join();
+        assertThat(firstResult.isDelivered()).isFalse();
+        assertThat(firstResult.getFailureReason()).isEqualTo(RelayFailureReason.SERVER_ERROR);
+        // Status'u olmayan eleman batch yanıtının status'unu alır
+        assertThat(second.orTimeout(5, TimeUnit.SECONDS).join().getStatusCode()).isEqualTo(202);
+    }
+
+    @Test
+    void responseOfDifferentLengthAppliesBatchResultToAll() {
+        respond(200, "[200]");
+
+        CompletableFuture<HttpRelaySender.HttpRelayResult> first = batcher.submit(message("{\"id\":1}"));
+        CompletableFuture<HttpRelaySender.HttpRelayResult> second = batcher.submit(message("{\"id\":2}"));
+
+        assertThat(first.orTimeout(5, TimeUnit.SECONDS).join().getResponseBody()).isEqualTo("[200]");
+        assertThat(second.orTimeout(5, TimeUnit.SECONDS).join().getResponseBody()).isEqualTo("[200]");
+    }
+
+    @Test
+    void failedBatchIsAppliedToEveryItem() {
+        when(httpRelaySender.send(any(RestSendDto.class))).thenReturn(HttpRelaySender.HttpRelayResult.failure(
+                RelayFailureReason.SERVER_ERROR, 500, "Server Error", "[200, 200]"));
+
+        CompletableFuture<HttpRelaySender.HttpRelayResult> first = batcher.submit(message("{\"id\":1}"));
+        CompletableFuture<HttpRelaySender.HttpRelayResult> second = batcher.submit(message("{\"id\":2}"));
+
+        assertThat(first.orTimeout(5, TimeUnit.SECONDS).join().getStatusCode()).isEqualTo(500);
+        assertThat(second.orTimeout(5, TimeUnit.SECONDS).join().isDelivered()).isFalse();
+    }
+
+    @Test
+    void withdrawnItemIsNotPosted() {
+        respond(200, "[200]");
+
+        RestSendDto withdrawn = message("{\"id\":1}");
+        CompletableFuture<HttpRelaySender.HttpRelayResult> first = batcher.submit(withdrawn);
+        assertThat(batcher.withdraw(withdrawn, first)).isTrue();
+        assertThat(batcher.withdraw(withdrawn, first)).isFalse();
+
+        CompletableFuture<HttpRelaySender.HttpRelayResult> second = batcher.submit(message("{\"id\":2}"));
+        CompletableFuture<HttpRelaySender.HttpRelayResult> third = batcher.submit(message("{\"id\":3}"));
+        third.orTimeout(5, TimeUnit.SECONDS).join();
+
+        ArgumentCaptor<RestSendDto> sent = ArgumentCaptor.forClass(RestSendDto.class);
+        verify(httpRelaySender, timeout(5000)).send(sent.capture());
+        assertThat(sent.getValue().getBody()).isEqualTo("[{\"id\":2},{\"id\":3}]");
+        assertThat(second).isCompleted();
+        assertThat(first).isNotDone();
+    }
+
+    @Test
+    void dispatchedItemCannotBeWithdrawn() {
+        respond(200, "[200, 200]");
+
+        RestSendDto dto = message("{\"id\":1}");
+        CompletableFuture<HttpRelaySender.HttpRelayResult> first = batcher.submit(dto);
+        batcher.submit(message("{\"id\":2}"));
+
+        assertThat(batcher.withdraw(dto, first)).isFalse();
+        assertThat(first.orTimeout(5, TimeUnit.SECONDS).join().isDelivered()).isTrue();
+    }
+
+    @Test
+    void onlyValidJsonBodiesAreBatched() {
+        assertThat(batcher.appliesTo(message("{\"id\":1}"))).isTrue();
+        assertThat(batcher.appliesTo(message("{\"id\":1} trailing"))).isFalse();
+        assertThat(batcher.appliesTo(message("not json"))).isFalse();
+        assertThat(JsonPayloads.isJson(objectMapper.getFactory(), "[1, 2]")).isTrue();
+        assertThat(JsonPayloads.isJson(objectMapper.getFactory(), "")).isFalse();
+        verify(httpRelaySender, never()).send(any(RestSendDto.class));
+    }
+
+    // =============== YARDIMCILAR ===============
+
+    private void respond(int status, String body) {
+        ResponseCapture.Captured captured = new ResponseCapture.Captured(status, "", body, (long) body.length(),
+                null, false, new HttpHeaders());
+        when(httpRelaySender.send(any(RestSendDto.class))).thenReturn(HttpRelaySender.HttpRelayResult.success(captured));
+    }
+
+    private static RestSendDto message(String body) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("url", "http://hook.example/events");
+        headers.put("method", "POST");
+        headers.put("Content-Type", "application/json");
+        RestSendDto dto = new RestSendDto();
+        dto.setHeaders(headers);
+        dto.setBody(body);
+        dto.setBatch(true);
+        return dto;
+    }
+}
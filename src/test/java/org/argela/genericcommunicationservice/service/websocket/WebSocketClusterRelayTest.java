@@ -0,0 +1,89 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.argela.genericcommunicationservice.enums.PayloadEncoding;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WebSocketClusterRelayTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+    private final CountDownLatch brokerReleased = new CountDownLatch(1);
+
+    private WebSocketClusterRelay relay;
+
+    @AfterEach
+    void tearDown() {
+        brokerReleased.countDown();
+        relay.shutdown();
+    }
+
+    @Test
+    void publishDoesNotWaitForStalledBrokerAndDropsOverLimit() throws InterruptedException {
+        CountDownLatch connecting = new CountDownLatch(1);
+        when(connectionFactory.createConnection()).thenAnswer(invocation -> {
+            connecting.countDown();
+            brokerReleased.await(10, TimeUnit.SECONDS);
+            throw new AmqpConnectException(new ConnectException("broker yok"));
+        });
+        relay = relay(2);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            relay.publish("/topic/a", null, frame(i), PayloadEncoding.JSON);
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // İlki yayın thread'inde broker'ı bekler, 2'si kuyrukta, kalan 2'si düşer
+        assertThat(elapsedMs).isLessThan(1000);
+        assertThat(connecting.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(count("out", "dropped")).isEqualTo(2);
+        assertThat(meterRegistry.get("websocket.cluster.pending").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void failedPublishIsCountedWithoutAffectingCaller() {
+        when(connectionFactory.createConnection()).thenThrow(new AmqpConnectException(new ConnectException("broker yok")));
+        relay = relay(10);
+
+        relay.publish("/topic/a", "user-1", frame(1), PayloadEncoding.JSON);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("out", "failure") < 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(count("out", "failure")).isEqualTo(1);
+        assertThat(count("out", "success")).isZero();
+    }
+
+    private WebSocketClusterRelay relay(int maxPending) {
+        WebSocketClusterRelay created = new WebSocketClusterRelay(mock(SimpMessagingTemplate.class),
+                mock(WebSocketReplayBuffer.class), connectionFactory, meterRegistry, maxPending);
+        ReflectionTestUtils.setField(created, "exchangeName", "gcs.websocket.fanout");
+        ReflectionTestUtils.setField(created, "publishTimeoutMs", 100L);
+        return created;
+    }
+
+    private double count(String direction, String result) {
+        return meterRegistry.get("websocket.cluster.frames").tag("direction", direction).tag("result", result)
+                .counter().count();
+    }
+
+    private static byte[] frame(int i) {
+        return ("{\"n\":" + i + "}").getBytes(StandardCharsets.UTF_8);
+    }
+}
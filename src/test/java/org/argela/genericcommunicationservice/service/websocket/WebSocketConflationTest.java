@@ -0,0 +1,85 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WebSocketConflationTest {
+
+    private final WebSocketSessionRegistry registry = mock(WebSocketSessionRegistry.class);
+
+    private WebSocketConflation conflation;
+
+    @BeforeEach
+    void setUp() {
+        conflation = new WebSocketConflation(registry, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(conflation, "destinations", " /topic/prices/**, ,/topic/status ");
+        conflation.init();
+    }
+
+    @Test
+    void matchesGlobalPatterns() {
+        assertThat(conflation.conflates(headers("session-1", "/topic/prices/eur", null))).isTrue();
+        assertThat(conflation.conflates(headers("session-1", "/topic/status", null))).isTrue();
+        assertThat(conflation.conflates(headers("session-1", "/topic/news", null))).isFalse();
+        assertThat(conflation.snapshot().get("destinations")).isEqualTo(List.of("/topic/prices/**", "/topic/status"));
+    }
+
+    @Test
+    void matchesPatternsOfTheSessionsWebsocket() {
+        when(registry.conflatedDestinations("session-1")).thenReturn(List.of("/topic/news/*"));
+
+        assertThat(conflation.conflates(headers("session-1", "/topic/news/tr", null))).isTrue();
+        assertThat(conflation.conflates(headers("session-2", "/topic/news/tr", null))).isFalse();
+    }
+
+    @Test
+    void userDestinationsMatchOnOriginalDestination() {
+        // Broker /user/queue/status'u session'a özel destination'a çözer, pattern orijinale uygulanır
+        assertThat(conflation.conflates(headers("session-1", "/queue/status-usersession-1", "/topic/status"))).isTrue();
+        assertThat(conflation.conflates(headers("session-1", "/topic/status-user", "/user/queue/other"))).isFalse();
+    }
+
+    @Test
+    void messagesWithoutDestinationAreNotConflated() {
+        assertThat(conflation.conflates(headers("session-1", null, null))).isFalse();
+    }
+
+    @Test
+    void countersTrackSlotLifecycle() {
+        conflation.onDeferred();
+        conflation.onDeferred();
+        conflation.onMerged();
+        conflation.onReleased();
+        conflation.onDropped(1);
+        conflation.onDropped(0);
+
+        assertThat(conflation.snapshot())
+                .containsEntry("pending", 0)
+                .containsEntry("deferred", 2L)
+                .containsEntry("merged", 1L)
+                .containsEntry("dropped", 1L);
+    }
+
+    private static MessageHeaders headers(String sessionId, String destination, String originalDestination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        if (destination != null) {
+            accessor.setDestination(destination);
+        }
+        if (originalDestination != null) {
+            accessor.setHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION, originalDestination);
+        }
+        return accessor.getMessageHeaders();
+    }
+}
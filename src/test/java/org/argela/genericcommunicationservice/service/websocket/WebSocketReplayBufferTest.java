@@ -0,0 +1,193 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.argela.genericcommunicationservice.enums.PayloadEncoding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WebSocketReplayBufferTest {
+
+    private static final String DESTINATION = "/topic/prices";
+
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final AbstractBrokerMessageHandler broker = mock(AbstractBrokerMessageHandler.class);
+
+    private WebSocketReplayBuffer replayBuffer;
+
+    @BeforeEach
+    void setUp() {
+        MessageChannel outbound = mock(MessageChannel.class);
+        when(outbound.send(any())).thenAnswer(invocation -> sent.add(invocation.getArgument(0)));
+
+        replayBuffer = new WebSocketReplayBuffer(new SimpleMeterRegistry());
+        replayBuffer.setClientOutboundChannel(outbound);
+        ReflectionTestUtils.setField(replayBuffer, "enabled", true);
+        ReflectionTestUtils.setField(replayBuffer, "size", 4);
+        ReflectionTestUtils.setField(replayBuffer, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(replayBuffer, "maxDestinations", 100);
+        replayBuffer.registerMetrics();
+    }
+
+    @Test
+    void replaysFramesAfterFromSeqWithoutGap() {
+        publish(DESTINATION, 5);
+
+        subscribe(DESTINATION, "2");
+
+        assertThat(sent).extracting(WebSocketReplayBufferTest::seq).containsExactly("3", "4", "5");
+        assertThat(sent).allMatch(message -> "true".equals(header(message, WebSocketReplayBuffer.REPLAY_HEADER)));
+        assertThat(sent).noneMatch(WebSocketReplayBufferTest::isGap);
+        assertThat(body(sent.get(0))).isEqualTo("3");
+    }
+
+    @Test
+    void flagsGapWhenRequestedFramesWereOverwritten() {
+        publish(DESTINATION, 6);
+
+        subscribe(DESTINATION, "1");
+
+        // Kapasite 4: seq 2 halkadan düştü, ilk replay frame'i gap taşır
+        assertThat(sent).extracting(WebSocketReplayBufferTest::seq).containsExactly("3", "4", "5", "6");
+        assertThat(isGap(sent.get(0))).isTrue();
+        assertThat(sent.subList(1, sent.size())).noneMatch(WebSocketReplayBufferTest::isGap);
+        assertThat(replayBuffer.snapshot().get("gaps")).isEqualTo(1L);
+    }
+
+    @Test
+    void upToDateSubscriberGetsNothing() {
+        publish(DESTINATION, 3);
+
+        subscribe(DESTINATION, "3");
+
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    void seqAheadOfNodeReplaysBufferWithGap() {
+        publish(DESTINATION, 2);
+
+        subscribe(DESTINATION, "900");
+
+        assertThat(sent).extracting(WebSocketReplayBufferTest::seq).containsExactly("1", "2");
+        assertThat(isGap(sent.get(0))).isTrue();
+    }
+
+    @Test
+    void resetWithoutBufferedFramesSendsGapNotice() {
+        publish(DESTINATION, 2);
+        // Buffer'daki frame'ler TTL'i geçmiş sayılsın
+        ReflectionTestUtils.setField(replayBuffer, "ttlMs", -60_000L);
+
+        subscribe(DESTINATION, "900");
+
+        assertThat(sent).hasSize(1);
+        assertThat(isGap(sent.get(0))).isTrue();
+        assertThat(seq(sent.get(0))).isNull();
+        assertThat((byte[]) sent.get(0).getPayload()).isEmpty();
+    }
+
+    @Test
+    void evictionKeepsSeqMonotonicAndReportsGap() {
+        long before = publish(DESTINATION, 3);
+        publish("/topic/other", 5);
+
+        ReflectionTestUtils.setField(replayBuffer, "ttlMs", -60_000L);
+        replayBuffer.evictExpired();
+        ReflectionTestUtils.setField(replayBuffer, "ttlMs", 60_000L);
+        assertThat(replayBuffer.snapshot().get("destinations")).isEqualTo(0);
+
+        // Buffer bırakıldıktan sonra abone olan client eksik olabileceğini öğrenir
+        subscribe(DESTINATION, Long.toString(before));
+        assertThat(sent).hasSize(1);
+        assertThat(isGap(sent.get(0))).isTrue();
+        sent.clear();
+
+        // Yeni buffer node'daki en büyük seq'ten devam eder, abonenin gördüğü seq'in altına inmez
+        long after = publish(DESTINATION, 1);
+        assertThat(after).isGreaterThan(before).isEqualTo(9);
+
+        subscribe(DESTINATION, Long.toString(before));
+        assertThat(sent).extracting(WebSocketReplayBufferTest::seq).containsExactly("9");
+        assertThat(isGap(sent.get(0))).isTrue();
+    }
+
+    @Test
+    void evictionOfLastPublishedDestinationContinuesWithoutGap() {
+        long before = publish(DESTINATION, 3);
+
+        ReflectionTestUtils.setField(replayBuffer, "ttlMs", -60_000L);
+        replayBuffer.evictExpired();
+        ReflectionTestUtils.setField(replayBuffer, "ttlMs", 60_000L);
+
+        // Aradaki seq'ler başka destination'a verilmedi: yeni buffer tam kaldığı yerden devam eder
+        assertThat(publish(DESTINATION, 1)).isEqualTo(before + 1);
+        subscribe(DESTINATION, Long.toString(before));
+        assertThat(sent).extracting(WebSocketReplayBufferTest::seq).containsExactly("4");
+        assertThat(sent).noneMatch(WebSocketReplayBufferTest::isGap);
+    }
+
+    @Test
+    void disabledBufferSendsWithoutSeq() {
+        ReflectionTestUtils.setField(replayBuffer, "enabled", false);
+
+        assertThat(publish(DESTINATION, 1)).isZero();
+        assertThat(replayBuffer.snapshot().get("destinations")).isEqualTo(0);
+    }
+
+    // =============== YARDIMCILAR ===============
+
+    // count frame yayınlar, son seq'i döner
+    private long publish(String destination, int count) {
+        long[] last = new long[1];
+        for (int i = 0; i < count; i++) {
+            byte[] frame = Integer.toString(i + 1).getBytes(StandardCharsets.UTF_8);
+            replayBuffer.recordAndSend(destination, frame, PayloadEncoding.JSON, seq -> last[0] = seq);
+        }
+        return last[0];
+    }
+
+    private void subscribe(String destination, String fromSeq) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("session-1");
+        accessor.setSubscriptionId("sub-1");
+        accessor.setDestination(destination);
+        accessor.setSessionAttributes(Map.of());
+        accessor.setNativeHeader(WebSocketReplayBuffer.FROM_SEQ_HEADER, fromSeq);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        replayBuffer.afterMessageHandled(message, mock(MessageChannel.class), broker, null);
+    }
+
+    private static String seq(Message<?> message) {
+        return header(message, WebSocketReplayBuffer.SEQ_HEADER);
+    }
+
+    private static boolean isGap(Message<?> message) {
+        return "true".equals(header(message, WebSocketReplayBuffer.REPLAY_GAP_HEADER));
+    }
+
+    private static String header(Message<?> message, String name) {
+        return SimpMessageHeaderAccessor.wrap(message).getFirstNativeHeader(name);
+    }
+
+    private static String body(Message<?> message) {
+        return new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+    }
+}
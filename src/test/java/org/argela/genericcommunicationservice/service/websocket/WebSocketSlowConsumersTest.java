@@ -0,0 +1,251 @@
+package org.argela.genericcommunicationservice.service.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebSocketSlowConsumersTest {
+
+    private static final String SESSION_ID = "session-1";
+
+    private final List<Message<?>> handled = new CopyOnWriteArrayList<>();
+    private final MessageHandler handler = handled::add;
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    private WebSocketConflation conflation;
+    private WebSocketSlowConsumers slowConsumers;
+    private WebSocketSession rawSession;
+    private WebSocketSession monitoredSession;
+
+    @AfterEach
+    void tearDown() {
+        if (slowConsumers != null) {
+            slowConsumers.shutdown();
+        }
+    }
+
+    // =============== preserve-order=true ===============
+
+    @Test
+    void preserveOrderQueuesBehindInFlightFrameAndDrainsInOrder() throws Exception {
+        setUp(true, "drop-oldest", "", 100);
+        Message<byte[]> first = frame("/topic/a", "sub-1", "1");
+        Message<byte[]> second = frame("/topic/a", "sub-1", "2");
+        Message<byte[]> third = frame("/topic/b", "sub-2", "3");
+
+        assertThat(slowConsumers.preSend(first, channel)).isSameAs(first);
+        assertThat(slowConsumers.preSend(second, channel)).isNull();
+        assertThat(slowConsumers.preSend(third, channel)).isNull();
+        assertThat(slowConsumers.snapshot().get("pendingMessages")).isEqualTo(2L);
+
+        handle(first);
+
+        awaitHandled(3);
+        assertThat(handled).containsExactly(first, second, third);
+        assertThat(slowConsumers.snapshot().get("pendingMessages")).isEqualTo(0L);
+    }
+
+    @Test
+    void preserveOrderDropsOldestOverLimit() throws Exception {
+        setUp(true, "drop-oldest", "", 2);
+        Message<byte[]> first = frame("/topic/a", "sub-1", "1");
+        Message<byte[]> second = frame("/topic/a", "sub-1", "2");
+        Message<byte[]> third = frame("/topic/a", "sub-1", "3");
+        Message<byte[]> fourth = frame("/topic/a", "sub-1", "4");
+
+        slowConsumers.preSend(first, channel);
+        slowConsumers.preSend(second, channel);
+        slowConsumers.preSend(third, channel);
+        slowConsumers.preSend(fourth, channel);
+        assertThat(slowConsumers.snapshot().get("dropped")).isEqualTo(1L);
+
+        handle(first);
+
+        awaitHandled(3);
+        assertThat(handled).containsExactly(first, third, fourth);
+    }
+
+    @Test
+    void preserveOrderConflatesSlotInPlace() throws Exception {
+        setUp(true, "drop-oldest", "/topic/prices/**", 100);
+        Message<byte[]> first = frame("/topic/prices/a", "sub-1", "1");
+        Message<byte[]> stale = frame("/topic/prices/a", "sub-1", "2");
+        Message<byte[]> news = frame("/topic/news", "sub-2", "3");
+        Message<byte[]> latest = frame("/topic/prices/a", "sub-1", "4");
+
+        slowConsumers.preSend(first, channel);
+        slowConsumers.preSend(stale, channel);
+        slowConsumers.preSend(news, channel);
+        slowConsumers.preSend(latest, channel);
+        assertThat(slowConsumers.snapshot().get("pendingMessages")).isEqualTo(2L);
+
+        handle(first);
+
+        awaitHandled(3);
+        assertThat(handled).containsExactly(first, latest, news);
+        assertThat(conflation.snapshot())
+                .containsEntry("deferred", 1L)
+                .containsEntry("merged", 1L)
+                .containsEntry("pending", 0);
+    }
+
+    @Test
+    void conflatePolicyKeepsLatestPerSubscriptionOnceSlow() throws Exception {
+        setUp(true, "conflate", "", 100);
+        ReflectionTestUtils.setField(slowConsumers, "slowPendingMessages", 2);
+        Message<byte[]> first = frame("/topic/a", "sub-1", "1");
+        Message<byte[]> second = frame("/topic/a", "sub-1", "2");
+        Message<byte[]> third = frame("/topic/b", "sub-2", "3");
+        Message<byte[]> fourth = frame("/topic/a", "sub-1", "4");
+        Message<byte[]> fifth = frame("/topic/a", "sub-1", "5");
+
+        slowConsumers.preSend(first, channel);
+        slowConsumers.preSend(second, channel);
+        slowConsumers.preSend(third, channel);
+        // Kuyrukta 2 mesaj - session yavaş, sub-1'in sonraki değerleri tek slotta birleşir
+        slowConsumers.preSend(fourth, channel);
+        slowConsumers.preSend(fifth, channel);
+        assertThat(slowConsumers.snapshot().get("conflated")).isEqualTo(1L);
+
+        handle(first);
+
+        awaitHandled(4);
+        assertThat(handled).containsExactly(first, second, third, fifth);
+    }
+
+    @Test
+    void disconnectPolicyClosesSessionOverLimit() throws Exception {
+        setUp(true, "disconnect", "", 1);
+        slowConsumers.preSend(frame("/topic/a", "sub-1", "1"), channel);
+        slowConsumers.preSend(frame("/topic/a", "sub-1", "2"), channel);
+        slowConsumers.preSend(frame("/topic/a", "sub-1", "3"), channel);
+
+        verify(rawSession, timeout(5000)).close(argThat(status -> status.getCode() == 4008));
+        assertThat(slowConsumers.preSend(frame("/topic/a", "sub-1", "4"), channel)).isNull();
+        assertThat(slowConsumers.snapshot())
+                .containsEntry("disconnected", 1L)
+                .containsEntry("dropped", 3L)
+                .containsEntry("pendingMessages", 0L);
+    }
+
+    // =============== preserve-order=false ===============
+
+    @Test
+    void withoutPreserveOrderQueuesOnlyWhileWriting() throws Exception {
+        setUp(false, "drop-oldest", "", 100);
+        Message<byte[]> first = frame("/topic/a", "sub-1", "1");
+        Message<byte[]> second = frame("/topic/a", "sub-1", "2");
+        Message<byte[]> third = frame("/topic/a", "sub-1", "3");
+
+        // Yazım yokken frame'ler normal yoldan gider
+        assertThat(slowConsumers.preSend(first, channel)).isSameAs(first);
+        slowConsumers.beforeHandle(first, channel, handler);
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(rawSession).sendMessage(any());
+        Thread writer = Thread.ofVirtual().start(() -> {
+            try {
+                monitoredSession.sendMessage(new TextMessage("1"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(slowConsumers.preSend(second, channel)).isNull();
+        assertThat(slowConsumers.preSend(third, channel)).isNull();
+        assertThat(slowConsumers.snapshot().get("pendingMessages")).isEqualTo(2L);
+
+        release.countDown();
+        writer.join();
+
+        awaitHandled(2);
+        assertThat(handled).containsExactly(second, third);
+    }
+
+    // =============== YARDIMCILAR ===============
+
+    private void setUp(boolean preserveOrder, String policy, String conflationDestinations, int maxPendingMessages)
+            throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WebSocketSessionRegistry registry = mock(WebSocketSessionRegistry.class);
+
+        conflation = new WebSocketConflation(registry, meterRegistry);
+        ReflectionTestUtils.setField(conflation, "destinations", conflationDestinations);
+        conflation.init();
+
+        slowConsumers = new WebSocketSlowConsumers(registry, conflation, meterRegistry);
+        ReflectionTestUtils.setField(slowConsumers, "preserveOrder", preserveOrder);
+        ReflectionTestUtils.setField(slowConsumers, "policyName", policy);
+        ReflectionTestUtils.setField(slowConsumers, "slowPendingMessages", 100);
+        ReflectionTestUtils.setField(slowConsumers, "maxPendingMessages", maxPendingMessages);
+        ReflectionTestUtils.setField(slowConsumers, "maxPendingBytes", 1_048_576L);
+        ReflectionTestUtils.setField(slowConsumers, "stallMs", 5000L);
+        ReflectionTestUtils.setField(slowConsumers, "closeCode", 4008);
+        slowConsumers.init();
+
+        rawSession = mock(WebSocketSession.class);
+        when(rawSession.getId()).thenReturn(SESSION_ID);
+        WebSocketHandler inner = mock(WebSocketHandler.class);
+        slowConsumers.decorate(inner).afterConnectionEstablished(rawSession);
+        ArgumentCaptor<WebSocketSession> captor = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(inner).afterConnectionEstablished(captor.capture());
+        monitoredSession = captor.getValue();
+    }
+
+    // Outbound kanalın executor'ının yaptığı gibi: beforeHandle, handler, afterMessageHandled
+    private void handle(Message<?> message) {
+        slowConsumers.beforeHandle(message, channel, handler);
+        handler.handleMessage(message);
+        slowConsumers.afterMessageHandled(message, channel, handler, null);
+    }
+
+    private void awaitHandled(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (handled.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(handled).hasSize(count);
+    }
+
+    private static Message<byte[]> frame(String destination, String subscriptionId, String payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION_ID);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+}